@@ -0,0 +1,91 @@
+package com.fiqhmaster.benchmarks;
+
+import com.fiqhmaster.entity.Category;
+import com.fiqhmaster.entity.UserCategoryStats;
+import com.fiqhmaster.repository.CategoryRepository;
+import com.fiqhmaster.repository.QuestionRepository;
+import com.fiqhmaster.repository.UserCategoryStatsRepository;
+import com.fiqhmaster.service.CategoryCatalog;
+import com.fiqhmaster.service.QuestionIndex;
+import com.fiqhmaster.service.StatsService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StatsService.getCategoryProgressForUser over a synthetic history: a user with
+ * aggregated statistics in three quarters of the categories, and per-category
+ * question totals served by the category catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CategoryProgressBenchmark {
+    private static final int QUESTIONS_PER_CATEGORY = 200;
+    private static final String[] DIFFICULTIES = {"beginner", "intermediate", "advanced"};
+
+    @Param({"10", "60"})
+    private int categoryCount;
+
+    private StatsService statsService;
+
+    @Setup
+    public void setUp() {
+        List<Category> categories = new ArrayList<>();
+        List<Object[]> indexKeys = new ArrayList<>();
+        List<UserCategoryStats> stats = new ArrayList<>();
+        long questionId = 1;
+        for (long categoryId = 1; categoryId <= categoryCount; categoryId++) {
+            Category category = Fixtures.category(categoryId);
+            categories.add(category);
+            for (int i = 0; i < QUESTIONS_PER_CATEGORY; i++, questionId++) {
+                indexKeys.add(new Object[]{questionId, categoryId, DIFFICULTIES[i % DIFFICULTIES.length], null});
+            }
+            if (categoryId % 4 != 0) {
+                stats.add(stats(category, (int) categoryId));
+            }
+        }
+
+        QuestionIndex questionIndex = new QuestionIndex(Stubs.of(QuestionRepository.class)
+            .answer("findIndexKeys", args -> indexKeys)
+            .build());
+        questionIndex.count(null, null, null);
+
+        CategoryCatalog categoryCatalog = new CategoryCatalog(Stubs.of(CategoryRepository.class)
+            .answer("findAll", args -> categories)
+            .build(), questionIndex);
+        categoryCatalog.snapshot();
+
+        statsService = new StatsService(null, null, null,
+            categoryCatalog,
+            Stubs.of(UserCategoryStatsRepository.class)
+                .answer("findByUserId", args -> stats)
+                .build(),
+            null);
+    }
+
+    @Benchmark
+    public Map<String, Object> categoryProgressForUser() {
+        return statsService.getCategoryProgressForUser(1L);
+    }
+
+    private static UserCategoryStats stats(Category category, int seed) {
+        UserCategoryStats row = new UserCategoryStats();
+        row.setCategory(category);
+        row.setQuizzesTaken(seed);
+        row.setQuestionsTotal(seed * 10);
+        row.setAnswersSubmitted(seed * 10);
+        row.setCorrectAnswers(seed * 7);
+        row.setDistinctQuestions(Math.min(seed * 8, QUESTIONS_PER_CATEGORY));
+        row.setScoredQuizzes(seed);
+        row.setScoreSum(seed * 70.0);
+        row.setBestScore(90.0);
+        return row;
+    }
+}
@@ -0,0 +1,73 @@
+package com.fiqhmaster.benchmarks;
+
+import com.fiqhmaster.dto.QuestionDTO;
+import com.fiqhmaster.entity.Category;
+import com.fiqhmaster.entity.Question;
+import com.fiqhmaster.repository.ExamParticipantRepository;
+import com.fiqhmaster.repository.QuestionRepository;
+import com.fiqhmaster.repository.ScheduledExamRepository;
+import com.fiqhmaster.service.ContentVersions;
+import com.fiqhmaster.service.ExamPaperCache;
+import com.fiqhmaster.service.QuestionContentCache;
+import com.fiqhmaster.service.ScheduledExamService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * ScheduledExamService.getExamQuestions for one participant once the exam's paper
+ * has been built: the registration check and the shared, pre-rendered question list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExamQuestionsBenchmark {
+
+    @Param({"20", "100"})
+    private int questionCount;
+
+    private ScheduledExamService scheduledExamService;
+
+    @Setup
+    public void setUp() {
+        Category category = Fixtures.category(1);
+        List<Long> questionIds = LongStream.rangeClosed(1, questionCount).boxed().toList();
+
+        QuestionRepository questionRepository = Stubs.of(QuestionRepository.class)
+            .answer("findWithCategoryByIdIn", args -> questions((Collection<?>) args[0], category))
+            .build();
+        ExamParticipantRepository examParticipantRepository = Stubs.of(ExamParticipantRepository.class)
+            .answer("existsByExamIdAndUserId", args -> true)
+            .build();
+        ScheduledExamRepository scheduledExamRepository = Stubs.of(ScheduledExamRepository.class)
+            .answer("findQuestionIdsByExamId", args -> questionIds)
+            .build();
+
+        ContentVersions contentVersions = new ContentVersions();
+        ExamPaperCache examPaperCache = new ExamPaperCache(scheduledExamRepository,
+            new QuestionContentCache(questionRepository, 10_000), contentVersions, 1_000);
+        scheduledExamService = new ScheduledExamService(null, examParticipantRepository, null,
+            examPaperCache, contentVersions, null, null, null, null, null, null);
+        scheduledExamService.getExamQuestions(1L, 1L);
+    }
+
+    @Benchmark
+    public List<QuestionDTO> examQuestions() {
+        return scheduledExamService.getExamQuestions(1L, 1L);
+    }
+
+    private static List<Question> questions(Collection<?> ids, Category category) {
+        List<Question> questions = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            questions.add(Fixtures.question((Long) id, category));
+        }
+        return questions;
+    }
+}
@@ -0,0 +1,53 @@
+package com.fiqhmaster.benchmarks;
+
+import com.fiqhmaster.entity.Category;
+import com.fiqhmaster.entity.Question;
+
+import java.lang.reflect.Field;
+
+// Synthetic entities shared by the benchmarks
+final class Fixtures {
+    private static final String[] DIFFICULTIES = {"beginner", "intermediate", "advanced"};
+
+    private Fixtures() {
+    }
+
+    static Category category(long id) {
+        Category category = new Category();
+        category.setId(id);
+        category.setNameAr("باب " + id);
+        category.setNameEn("Chapter " + id);
+        return category;
+    }
+
+    static Question question(long id, Category category) {
+        Question question = new Question();
+        question.setId(id);
+        question.setCategory(category);
+        question.setDifficulty(DIFFICULTIES[(int) (id % DIFFICULTIES.length)]);
+        question.setQuestionAr("ما حكم المسألة رقم " + id + " في باب " + category.getNameAr() + "؟");
+        question.setQuestionEn("What is the ruling on issue " + id + "?");
+        question.setOptionAAr("واجب");
+        question.setOptionBAr("مستحب");
+        question.setOptionCAr("مكروه");
+        question.setOptionDAr("مباح");
+        question.setOptionAEn("Obligatory");
+        question.setOptionBEn("Recommended");
+        question.setOptionCEn("Disliked");
+        question.setOptionDEn("Permissible");
+        question.setCorrectAnswer((int) (id % 4));
+        question.setExplanationAr("شرح المسألة رقم " + id);
+        question.setExplanationEn("Explanation of issue " + id);
+        return question;
+    }
+
+    static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
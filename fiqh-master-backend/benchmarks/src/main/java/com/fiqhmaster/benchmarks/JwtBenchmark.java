@@ -0,0 +1,66 @@
+package com.fiqhmaster.benchmarks;
+
+import com.fiqhmaster.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token handling as done by JwtAuthenticationFilter on every authenticated request:
+ * the old validate-then-read-twice path against the single-parse path, with the
+ * verified-token cache hit and missed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+    private static final String SECRET = "BenchmarkSecretKeyThatIsLongEnoughForHmacSha256Signing";
+
+    private JwtUtil cached;
+    private JwtUtil uncached;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cached = jwtUtil(1_000);
+        // A single-entry cache fed alternating tokens never hits
+        uncached = jwtUtil(1);
+        tokens = new String[]{
+            cached.generateToken("first@example.com", 1L),
+            cached.generateToken("second@example.com", 2L)
+        };
+    }
+
+    @Benchmark
+    public Object validateThenReadClaims() {
+        String token = tokens[0];
+        if (!cached.validateToken(token)) {
+            throw new IllegalStateException("token rejected");
+        }
+        return cached.getEmailFromToken(token) + cached.getUserIdFromToken(token);
+    }
+
+    @Benchmark
+    public Object authenticateCacheHit() {
+        return cached.authenticate(tokens[0]).orElseThrow();
+    }
+
+    @Benchmark
+    public Object authenticateCacheMiss() {
+        next ^= 1;
+        return uncached.authenticate(tokens[next]).orElseThrow();
+    }
+
+    private static JwtUtil jwtUtil(int cacheSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        Fixtures.setField(jwtUtil, "secret", SECRET);
+        Fixtures.setField(jwtUtil, "expiration", TimeUnit.HOURS.toMillis(1));
+        Fixtures.setField(jwtUtil, "cacheSize", cacheSize);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
@@ -0,0 +1,60 @@
+package com.fiqhmaster.benchmarks;
+
+import com.fiqhmaster.dto.QuestionDTO;
+import com.fiqhmaster.entity.Category;
+import com.fiqhmaster.entity.Question;
+import com.fiqhmaster.service.QuestionContent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Question to DTO mapping for one page of questions: building the cached content
+ * projection from entities, and rendering DTOs from that projection per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuestionMappingBenchmark {
+
+    @Param({"10", "50"})
+    private int pageSize;
+
+    private List<Question> questions;
+    private List<QuestionContent> contents;
+
+    @Setup
+    public void setUp() {
+        Category category = Fixtures.category(1);
+        questions = new ArrayList<>(pageSize);
+        contents = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            Question question = Fixtures.question(id, category);
+            questions.add(question);
+            contents.add(QuestionContent.from(question));
+        }
+    }
+
+    @Benchmark
+    public List<QuestionContent> contentFromEntities() {
+        List<QuestionContent> result = new ArrayList<>(questions.size());
+        for (Question question : questions) {
+            result.add(QuestionContent.from(question));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<QuestionDTO> dtosFromContent() {
+        List<QuestionDTO> result = new ArrayList<>(contents.size());
+        for (QuestionContent content : contents) {
+            result.add(content.toDTO(false));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package com.fiqhmaster.benchmarks;
+
+import com.fiqhmaster.entity.User;
+import com.fiqhmaster.repository.UserRepository;
+import com.fiqhmaster.service.UserService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rank and badge evaluation after a completed quiz, through
+ * UserService.updateUserStats. Each call starts from a freshly loaded user, so
+ * the badges a profile qualifies for are awarded on every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserProgressionBenchmark {
+
+    @Param({"beginner", "expert"})
+    private String profile;
+
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        int quizzes = "expert".equals(profile) ? 150 : 3;
+        UserRepository userRepository = Stubs.of(UserRepository.class)
+            .answer("findById", args -> Optional.of(user((Long) args[0], quizzes)))
+            .answer("save", args -> args[0])
+            .build();
+        userService = new UserService(userRepository, null, null);
+    }
+
+    @Benchmark
+    public void updateUserStats() {
+        userService.updateUserStats(1L, 8, 10);
+    }
+
+    private static User user(Long id, int quizzes) {
+        User user = new User();
+        user.setId(id);
+        user.setTotalQuizzes(quizzes);
+        user.setTotalAnswers(quizzes * 10);
+        user.setTotalCorrectAnswers(quizzes * 9);
+        return user;
+    }
+}
@@ -0,0 +1,95 @@
+package com.fiqhmaster.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded map that evicts the least recently used entry and counts hits, misses
+ * and evictions. Meters follow Micrometer's cache naming (cache.gets, cache.evictions, cache.size).
+ */
+public class LruCache<K, V> {
+    private final int maxSize;
+    private final LinkedHashMap<K, V> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public void registerMetrics(MeterRegistry registry, String cacheName) {
+        FunctionCounter.builder("cache.gets", this, LruCache::hitCount)
+            .tag("cache", cacheName).tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder("cache.gets", this, LruCache::missCount)
+            .tag("cache", cacheName).tag("result", "miss")
+            .register(registry);
+        FunctionCounter.builder("cache.evictions", this, LruCache::evictionCount)
+            .tag("cache", cacheName)
+            .register(registry);
+        Gauge.builder("cache.size", this, LruCache::size)
+            .tag("cache", cacheName)
+            .register(registry);
+    }
+}
@@ -0,0 +1,66 @@
+package com.fiqhmaster.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Hibernate's table ID generators fetch a new block of IDs on a second connection while
+ * the calling thread still holds its own (and the optimizer lock). If every pooled
+ * connection is held by threads waiting on that lock, the pool deadlocks until its
+ * timeout. Nested acquisitions are therefore served from a small reserve pool.
+ * <p>
+ * The same wrapper bounds how many threads may wait for a primary connection; beyond
+ * that requests are rejected with 503 rather than queueing for the full pool timeout.
+ */
+@Configuration
+@Slf4j
+public class DataSourceConfig {
+
+    @Bean
+    static BeanPostProcessor guardedDataSource(
+            @Value("${fiqh.datasource.reserve-pool-size:4}") int reservePoolSize,
+            @Value("${fiqh.datasource.guard.max-waiting:200}") int maxWaiting) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource primary) || reservePoolSize <= 0) {
+                    return bean;
+                }
+                // Same settings as the primary (URL, credentials, driver, timeouts...), only smaller
+                HikariDataSource reserve = new HikariDataSource();
+                primary.copyStateTo(reserve);
+                reserve.setPoolName((primary.getPoolName() != null ? primary.getPoolName() : "HikariPool") + "-reserve");
+                reserve.setMaximumPoolSize(reservePoolSize);
+                reserve.setMinimumIdle(0);
+                int admitted = maxWaiting >= 0 ? primary.getMaximumPoolSize() + maxWaiting : 0;
+                log.info("DataSource '{}': reserve pool of {} for nested connections, {} threads admitted to the primary pool",
+                    beanName, reservePoolSize, admitted > 0 ? admitted : "unbounded");
+                return new GuardedDataSource(primary, reserve, admitted);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder dataSourceGuardMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof GuardedDataSource guarded) {
+                guarded.bindReserveMetrics(registry);
+                Gauge.builder("fiqh.datasource.admission.available", guarded, GuardedDataSource::available)
+                    .description("Threads that can still acquire or wait for a pooled connection")
+                    .register(registry);
+                FunctionCounter.builder("fiqh.datasource.admission.rejected", guarded, GuardedDataSource::rejected)
+                    .description("Connection requests rejected because too many threads were waiting")
+                    .register(registry);
+            }
+        };
+    }
+}
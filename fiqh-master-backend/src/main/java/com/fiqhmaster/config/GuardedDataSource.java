@@ -0,0 +1,109 @@
+package com.fiqhmaster.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out connections from the primary pool, or from the reserve pool when the calling
+ * thread already holds a connection. Threads holding or waiting for a primary connection
+ * are capped, so a burst of (virtual) request threads fails fast instead of piling up
+ * behind the pool.
+ */
+@Slf4j
+class GuardedDataSource extends DelegatingDataSource implements DisposableBean {
+    private final HikariDataSource primary;
+    private final HikariDataSource reserve;
+    private final Semaphore admission;
+    private final AtomicLong rejected = new AtomicLong();
+    private final ThreadLocal<int[]> held = ThreadLocal.withInitial(() -> new int[1]);
+
+    // admitted <= 0 leaves primary acquisitions unbounded
+    GuardedDataSource(HikariDataSource primary, HikariDataSource reserve, int admitted) {
+        super(primary);
+        this.primary = primary;
+        this.reserve = reserve;
+        this.admission = admitted > 0 ? new Semaphore(admitted) : null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int[] count = held.get();
+        if (count[0] > 0) {
+            return track(reserve.getConnection(), count, false);
+        }
+        if (admission == null) {
+            return track(primary.getConnection(), count, false);
+        }
+        if (!admission.tryAcquire()) {
+            rejected.incrementAndGet();
+            throw new SQLTransientConnectionException("Too many concurrent database requests");
+        }
+        try {
+            return track(primary.getConnection(), count, true);
+        } catch (SQLException | RuntimeException e) {
+            admission.release();
+            throw e;
+        }
+    }
+
+    int available() {
+        return admission != null ? admission.availablePermits() : -1;
+    }
+
+    long rejected() {
+        return rejected.get();
+    }
+
+    // Must run before the reserve pool hands out its first connection
+    void bindReserveMetrics(MeterRegistry registry) {
+        try {
+            reserve.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        } catch (IllegalStateException e) {
+            log.warn("Reserve pool already started; its metrics are not recorded");
+        }
+    }
+
+    private Connection track(Connection connection, int[] count, boolean admitted) {
+        count[0]++;
+        boolean[] closed = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                if ("equals".equals(method.getName())) {
+                    return proxy == args[0];
+                }
+                if ("hashCode".equals(method.getName())) {
+                    return System.identityHashCode(proxy);
+                }
+                if ("close".equals(method.getName()) && !closed[0]) {
+                    closed[0] = true;
+                    count[0]--;
+                    if (admitted) {
+                        admission.release();
+                    }
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+    }
+
+    @Override
+    public void destroy() {
+        reserve.close();
+        primary.close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.fiqhmaster.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Request, {@code @Async} and {@code @Scheduled} work run on virtual threads when
+ * {@code spring.threads.virtual.enabled} is set and the runtime is Java 21 or newer;
+ * Spring Boot configures Tomcat and the task executors accordingly.
+ */
+@Configuration
+@EnableAsync
+@RequiredArgsConstructor
+@Slf4j
+public class ThreadingConfig {
+    private final Environment environment;
+
+    @PostConstruct
+    void reportMode() {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Requests and background tasks run on virtual threads");
+        } else if (requested) {
+            log.warn("Virtual threads were requested but need Java 21+ (running {}); using platform threads",
+                JavaVersion.getJavaVersion());
+        }
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    VirtualThreadPinningMonitor virtualThreadPinningMonitor() {
+        return new VirtualThreadPinningMonitor(
+            environment.getProperty("fiqh.threads.pinning-threshold-ms", Long.class, 20L));
+    }
+}
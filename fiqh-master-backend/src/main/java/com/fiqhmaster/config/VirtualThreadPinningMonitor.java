@@ -0,0 +1,73 @@
+package com.fiqhmaster.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event: a virtual thread that blocks
+ * while pinned to its carrier (inside a monitor or native frame) for longer than the
+ * threshold is logged with its stack and recorded as {@code fiqh.threads.pinned}.
+ */
+@Slf4j
+class VirtualThreadPinningMonitor implements MeterBinder {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final long thresholdMillis;
+    private volatile RecordingStream stream;
+    private volatile Timer pinned;
+
+    VirtualThreadPinningMonitor(long thresholdMillis) {
+        this.thresholdMillis = thresholdMillis;
+    }
+
+    @PostConstruct
+    void start() {
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+        stream = recording;
+        log.info("Watching for virtual threads pinned longer than {} ms", thresholdMillis);
+    }
+
+    private void onPinned(RecordedEvent event) {
+        if (pinned != null) {
+            pinned.record(event.getDuration());
+        }
+        String frames = event.getStackTrace() == null ? "unknown" : event.getStackTrace().getFrames().stream()
+            .limit(LOGGED_FRAMES)
+            .map(VirtualThreadPinningMonitor::describe)
+            .collect(Collectors.joining("\n\tat "));
+        log.warn("Virtual thread pinned for {} ms:\n\tat {}", event.getDuration().toMillis(), frames);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+            + ":" + frame.getLineNumber();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        pinned = Timer.builder("fiqh.threads.pinned")
+            .description("Time virtual threads spent blocked while pinned to a carrier thread")
+            .register(registry);
+    }
+}
@@ -1,10 +1,13 @@
 package com.fiqhmaster.controller;
 
+import com.fiqhmaster.controller.ConditionalResponses.Policy;
 import com.fiqhmaster.dto.CategoryDTO;
+import com.fiqhmaster.service.CategoryCatalog;
 import com.fiqhmaster.service.CategoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 
 @RestController
@@ -13,14 +16,18 @@ import java.util.List;
 public class CategoryController {
     
     private final CategoryService categoryService;
+    private final ConditionalResponses conditionalResponses;
     
     @GetMapping
-    public ResponseEntity<List<CategoryDTO>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<List<CategoryDTO>> getAllCategories(WebRequest request) {
+        CategoryCatalog.Snapshot catalog = categoryService.getCatalog();
+        return conditionalResponses.respond(request, Policy.CATALOG, catalog.etag(), catalog::categories);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Long id) {
-        return ResponseEntity.ok(categoryService.getCategoryById(id));
+    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Long id, WebRequest request) {
+        CategoryCatalog.Snapshot catalog = categoryService.getCatalog();
+        return conditionalResponses.respond(request, Policy.CATALOG, catalog.etag(),
+            () -> categoryService.getCategoryById(catalog, id));
     }
-}
\ No newline at end of file
+}
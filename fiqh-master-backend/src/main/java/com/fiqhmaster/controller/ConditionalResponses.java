@@ -0,0 +1,49 @@
+package com.fiqhmaster.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET handling for read-mostly endpoints: a matching If-None-Match gets a 304
+ * without the body being built or serialized, anything else the body with its ETag and
+ * the endpoint's Cache-Control policy.
+ */
+@Component
+public class ConditionalResponses {
+
+    public enum Policy {
+        // Changes rarely; clients may reuse it for a while before revalidating
+        CATALOG,
+        // Polled; a short max-age absorbs bursts of refreshes
+        LEADERBOARD,
+        // Per-user or time-sensitive; always revalidated
+        REVALIDATE
+    }
+
+    private final Map<Policy, CacheControl> policies = new EnumMap<>(Policy.class);
+
+    public ConditionalResponses(@Value("${fiqh.http.cache.catalog-max-age:60s}") Duration catalogMaxAge,
+                                @Value("${fiqh.http.cache.leaderboard-max-age:10s}") Duration leaderboardMaxAge) {
+        policies.put(Policy.CATALOG, CacheControl.maxAge(catalogMaxAge).cachePrivate());
+        policies.put(Policy.LEADERBOARD, CacheControl.maxAge(leaderboardMaxAge).cachePrivate());
+        policies.put(Policy.REVALIDATE, CacheControl.noCache().cachePrivate());
+    }
+
+    public <T> ResponseEntity<T> respond(WebRequest request, Policy policy, String etag, Supplier<T> body) {
+        CacheControl cacheControl = policies.get(policy);
+        // checkNotModified has already written the ETag header for the 304
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.get());
+    }
+}
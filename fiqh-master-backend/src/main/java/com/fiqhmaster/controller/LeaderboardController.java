@@ -1,10 +1,14 @@
 package com.fiqhmaster.controller;
 
+import com.fiqhmaster.controller.ConditionalResponses.Policy;
 import com.fiqhmaster.dto.LeaderboardEntryDTO;
 import com.fiqhmaster.service.LeaderboardService;
+import com.fiqhmaster.service.WindowedLeaderboard;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 
 @RestController
@@ -13,23 +17,75 @@ import java.util.List;
 public class LeaderboardController {
     
     private final LeaderboardService leaderboardService;
+    private final ConditionalResponses conditionalResponses;
     
     @GetMapping
     public ResponseEntity<List<LeaderboardEntryDTO>> getGlobalLeaderboard(
-            @RequestParam(defaultValue = "50") int limit) {
-        return ResponseEntity.ok(leaderboardService.getGlobalLeaderboard(limit));
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        return conditionalResponses.respond(request, Policy.LEADERBOARD, leaderboardService.etag("score", limit),
+            () -> leaderboardService.getGlobalLeaderboard(limit));
+    }
+    
+    @GetMapping("/daily")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getDailyLeaderboard(
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        return windowLeaderboard(WindowedLeaderboard.Window.DAILY, limit, request);
+    }
+    
+    @GetMapping("/weekly")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getWeeklyLeaderboard(
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        return windowLeaderboard(WindowedLeaderboard.Window.WEEKLY, limit, request);
+    }
+    
+    @GetMapping("/monthly")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getMonthlyLeaderboard(
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        return windowLeaderboard(WindowedLeaderboard.Window.MONTHLY, limit, request);
+    }
+    
+    @GetMapping("/me")
+    public ResponseEntity<LeaderboardEntryDTO> getMyRank(Authentication authentication, WebRequest request) {
+        Long userId = (Long) authentication.getPrincipal();
+        return conditionalResponses.respond(request, Policy.REVALIDATE, leaderboardService.etag("me", userId),
+            () -> leaderboardService.getUserRank(userId));
+    }
+    
+    @GetMapping("/around-me")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getLeaderboardAroundMe(
+            @RequestParam(defaultValue = "5") int radius,
+            Authentication authentication,
+            WebRequest request) {
+        Long userId = (Long) authentication.getPrincipal();
+        int clamped = Math.max(0, Math.min(radius, 50));
+        return conditionalResponses.respond(request, Policy.REVALIDATE, leaderboardService.etag("around", userId + "-" + clamped),
+            () -> leaderboardService.getLeaderboardAroundUser(userId, clamped));
     }
     
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<List<LeaderboardEntryDTO>> getCategoryLeaderboard(
             @PathVariable Long categoryId,
-            @RequestParam(defaultValue = "50") int limit) {
-        return ResponseEntity.ok(leaderboardService.getCategoryLeaderboard(categoryId, limit));
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        return conditionalResponses.respond(request, Policy.LEADERBOARD, leaderboardService.etag("category", categoryId + "-" + limit),
+            () -> leaderboardService.getCategoryLeaderboard(categoryId, limit));
     }
     
     @GetMapping("/streak")
     public ResponseEntity<List<LeaderboardEntryDTO>> getStreakLeaderboard(
-            @RequestParam(defaultValue = "50") int limit) {
-        return ResponseEntity.ok(leaderboardService.getStreakLeaderboard(limit));
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        return conditionalResponses.respond(request, Policy.LEADERBOARD, leaderboardService.etag("streak", limit),
+            () -> leaderboardService.getStreakLeaderboard(limit));
+    }
+    
+    private ResponseEntity<List<LeaderboardEntryDTO>> windowLeaderboard(
+            WindowedLeaderboard.Window window, int limit, WebRequest request) {
+        return conditionalResponses.respond(request, Policy.LEADERBOARD, leaderboardService.windowEtag(window, limit),
+            () -> leaderboardService.getWindowLeaderboard(window, limit));
     }
 }
@@ -1,11 +1,13 @@
 package com.fiqhmaster.controller;
 
+import com.fiqhmaster.controller.ConditionalResponses.Policy;
 import com.fiqhmaster.dto.*;
 import com.fiqhmaster.service.QuestionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 
 @RestController
@@ -14,6 +16,7 @@ import java.util.List;
 public class QuestionController {
     
     private final QuestionService questionService;
+    private final ConditionalResponses conditionalResponses;
     
     @GetMapping("/random")
     public ResponseEntity<List<QuestionDTO>> getRandomQuestions(
@@ -35,8 +38,10 @@ public class QuestionController {
     @GetMapping("/{id}")
     public ResponseEntity<QuestionAnswerDTO> getQuestionById(
             @PathVariable Long id,
-            Authentication authentication) {
+            Authentication authentication,
+            WebRequest request) {
         Long userId = (Long) authentication.getPrincipal();
-        return ResponseEntity.ok(questionService.getQuestionWithAnswer(id, userId));
+        return conditionalResponses.respond(request, Policy.REVALIDATE, questionService.questionEtag(id, userId),
+            () -> questionService.getQuestionWithAnswer(id, userId));
     }
 }
\ No newline at end of file
@@ -42,6 +42,15 @@ public class QuizController {
         return ResponseEntity.ok(Map.of("message", "Answer submitted successfully"));
     }
     
+    @PostMapping("/{quizAttemptId}/answers:batch")
+    public ResponseEntity<BatchAnswerResultDTO> submitAnswers(
+            @PathVariable Long quizAttemptId,
+            @Valid @RequestBody BatchAnswerRequest request,
+            Authentication authentication) {
+        Long userId = (Long) authentication.getPrincipal();
+        return ResponseEntity.ok(quizService.submitAnswers(userId, quizAttemptId, request));
+    }
+    
     @PostMapping("/complete/{quizAttemptId}")
     public ResponseEntity<QuizResultDTO> completeQuiz(
             @PathVariable Long quizAttemptId,
@@ -1,11 +1,16 @@
 package com.fiqhmaster.controller;
 
+import com.fiqhmaster.controller.ConditionalResponses.Policy;
 import com.fiqhmaster.dto.*;
 import com.fiqhmaster.service.ScheduledExamService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.List;
 import java.util.Map;
 
@@ -15,6 +20,7 @@ import java.util.Map;
 public class ScheduledExamController {
     
     private final ScheduledExamService scheduledExamService;
+    private final ConditionalResponses conditionalResponses;
     
     @PostMapping("/create")
     public ResponseEntity<ScheduledExamDTO> createExam(
@@ -28,10 +34,11 @@ public class ScheduledExamController {
     @GetMapping("/code/{examCode}")
     public ResponseEntity<ScheduledExamDTO> getExamByCode(
             @PathVariable String examCode,
-            Authentication authentication) {
+            Authentication authentication,
+            WebRequest request) {
         Long userId = (Long) authentication.getPrincipal();
-        ScheduledExamDTO exam = scheduledExamService.getExamByCode(examCode, userId);
-        return ResponseEntity.ok(exam);
+        return conditionalResponses.respond(request, Policy.REVALIDATE, scheduledExamService.examCodeEtag(examCode, userId),
+            () -> scheduledExamService.getExamByCode(examCode, userId));
     }
     
     @PostMapping("/join")
@@ -39,7 +46,8 @@ public class ScheduledExamController {
             @RequestBody JoinExamRequest request,
             Authentication authentication) {
         Long userId = (Long) authentication.getPrincipal();
-        ExamDetailsDTO details = scheduledExamService.joinExam(userId, request.getExamCode());
+        Long examId = scheduledExamService.joinExam(userId, request.getExamCode());
+        ExamDetailsDTO details = scheduledExamService.getExamDetails(examId, userId);
         return ResponseEntity.ok(details);
     }
     
@@ -52,6 +60,15 @@ public class ScheduledExamController {
         return ResponseEntity.ok(details);
     }
     
+    // Server-sent events: a snapshot, then joins, starts, hand-ins, countdown ticks and the start signal
+    @GetMapping(value = "/{examId}/room", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter examRoom(
+            @PathVariable Long examId,
+            Authentication authentication) {
+        Long userId = (Long) authentication.getPrincipal();
+        return scheduledExamService.openRoom(examId, userId);
+    }
+    
     @PostMapping("/{examId}/start")
     public ResponseEntity<Map<String, String>> startExam(
             @PathVariable Long examId,
@@ -61,6 +78,37 @@ public class ScheduledExamController {
         return ResponseEntity.ok(Map.of("message", "بدأ الاختبار بنجاح"));
     }
     
+    @PostMapping("/{examId}/submit")
+    public ResponseEntity<ExamSubmissionResultDTO> submitAnswers(
+            @PathVariable Long examId,
+            @Valid @RequestBody BatchAnswerRequest request,
+            Authentication authentication) {
+        Long userId = (Long) authentication.getPrincipal();
+        ExamSubmissionResultDTO result = scheduledExamService.submitAnswers(userId, examId, request);
+        return ResponseEntity.ok(result);
+    }
+    
+    // Hand-in after every answer went out in earlier batches
+    @PostMapping("/{examId}/complete")
+    public ResponseEntity<ExamSubmissionResultDTO> completeExam(
+            @PathVariable Long examId,
+            Authentication authentication) {
+        Long userId = (Long) authentication.getPrincipal();
+        ExamSubmissionResultDTO result = scheduledExamService.completeExam(userId, examId);
+        return ResponseEntity.ok(result);
+    }
+    
+    @GetMapping("/{examId}/results")
+    public ResponseEntity<ExamResultsDTO> getExamResults(
+            @PathVariable Long examId,
+            @RequestParam(defaultValue = "50") int limit,
+            Authentication authentication,
+            WebRequest request) {
+        Long userId = (Long) authentication.getPrincipal();
+        return conditionalResponses.respond(request, Policy.REVALIDATE, scheduledExamService.examResultsEtag(examId, userId),
+            () -> scheduledExamService.getExamResults(examId, userId, limit));
+    }
+    
     @GetMapping("/my-exams")
     public ResponseEntity<List<ScheduledExamDTO>> getMyExams(Authentication authentication) {
         Long userId = (Long) authentication.getPrincipal();
@@ -0,0 +1,29 @@
+package com.fiqhmaster.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BatchAnswerRequest {
+    @NotEmpty(message = "Answers are required")
+    private List<@Valid @NotNull Answer> answers;
+    
+    private Boolean complete = false;
+    
+    private Integer timeTaken = 0;
+    
+    @Data
+    public static class Answer {
+        @NotNull(message = "Question ID is required")
+        private Long questionId;
+        
+        @NotNull(message = "Selected answer is required")
+        @Min(value = 0, message = "Answer must be between 0 and 3")
+        @Max(value = 3, message = "Answer must be between 0 and 3")
+        private Integer selectedAnswer;
+        
+        private Integer timeTakenSeconds;
+    }
+}
@@ -0,0 +1,11 @@
+package com.fiqhmaster.dto;
+
+import lombok.Data;
+
+@Data
+public class BatchAnswerResultDTO {
+    private Long quizAttemptId;
+    private Integer submitted;
+    private Integer correct;
+    private QuizResultDTO result;
+}
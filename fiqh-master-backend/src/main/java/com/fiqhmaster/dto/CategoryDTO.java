@@ -1,16 +1,21 @@
 package com.fiqhmaster.dto;
 
-import lombok.Data;
+import lombok.Value;
 
-@Data
+import java.util.Map;
+
+// Immutable: the category catalog hands the same instances to every caller
+@Value
 public class CategoryDTO {
-    private Long id;
-    private String nameAr;
-    private String nameEn;
-    private String descriptionAr;
-    private String descriptionEn;
-    private String icon;
-    private String color;
-    private Integer displayOrder;
-    private Integer questionCount;
+    Long id;
+    String nameAr;
+    String nameEn;
+    String descriptionAr;
+    String descriptionEn;
+    String icon;
+    String color;
+    Integer displayOrder;
+    Integer questionCount;
+    Map<String, Integer> questionCountByDifficulty;
+    Map<Long, Integer> questionCountByMarja;
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.fiqhmaster.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class ExamRankingEntryDTO {
+    private Integer rank;
+    private Long userId;
+    private String userName;
+    private Integer score;
+    private Long timeTakenSeconds;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,15 @@
+package com.fiqhmaster.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class ExamResultsDTO {
+    private Long examId;
+    private Integer totalQuestions;
+    private Integer participants;
+    private Integer submitted;
+    private Boolean finalized;
+    private List<ExamRankingEntryDTO> ranking;
+    private ExamRankingEntryDTO myResult;
+}
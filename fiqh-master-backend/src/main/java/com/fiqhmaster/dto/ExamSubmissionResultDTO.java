@@ -0,0 +1,13 @@
+package com.fiqhmaster.dto;
+
+import lombok.Data;
+
+@Data
+public class ExamSubmissionResultDTO {
+    private Long examId;
+    private Integer submitted;
+    private Integer correct;
+    private Integer score;
+    private Boolean completed;
+    private Integer rank;
+}
@@ -16,7 +16,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Bookmark {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "bookmarks_id")
+    @TableGenerator(name = "bookmarks_id", table = "id_generators", pkColumnName = "entity_name",
+        valueColumnName = "next_val", pkColumnValue = "bookmarks", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,5 +1,6 @@
 package com.fiqhmaster.entity;
 
+import com.fiqhmaster.service.CategoryEntityListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "categories")
+@EntityListeners(CategoryEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,44 @@
+package com.fiqhmaster.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "exam_answers", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"participant_id", "question_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamAnswer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "exam_answers_id")
+    @TableGenerator(name = "exam_answers_id", table = "id_generators", pkColumnName = "entity_name",
+        valueColumnName = "next_val", pkColumnValue = "exam_answers", allocationSize = 50)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "participant_id", nullable = false)
+    private ExamParticipant participant;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "question_id", nullable = false)
+    private Question question;
+    
+    @Column(name = "selected_answer", nullable = false)
+    private Integer selectedAnswer;
+    
+    @Column(name = "is_correct", nullable = false)
+    private Boolean isCorrect;
+    
+    @Column(name = "time_taken_seconds")
+    private Integer timeTakenSeconds;
+    
+    @CreationTimestamp
+    @Column(name = "answered_at", nullable = false, updatable = false)
+    private LocalDateTime answeredAt;
+}
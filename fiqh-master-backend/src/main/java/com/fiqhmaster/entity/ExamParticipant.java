@@ -17,7 +17,9 @@ import java.time.LocalDateTime;
 public class ExamParticipant {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "exam_participants_id")
+    @TableGenerator(name = "exam_participants_id", table = "id_generators", pkColumnName = "entity_name",
+        valueColumnName = "next_val", pkColumnValue = "exam_participants", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -39,10 +41,10 @@ public class ExamParticipant {
     private Long quizAttemptId;
     
     @Column(name = "status")
-    private String status = "REGISTERED"; // REGISTERED, STARTED, COMPLETED
+    private String status = "REGISTERED"; // REGISTERED, STARTED, COMPLETED, ABSENT
     
     @Column(name = "score")
-    private Integer score;
+    private Integer score; // Correct answers
     
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
@@ -1,5 +1,6 @@
 package com.fiqhmaster.entity;
 
+import com.fiqhmaster.service.QuestionEntityListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "questions")
+@EntityListeners(QuestionEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
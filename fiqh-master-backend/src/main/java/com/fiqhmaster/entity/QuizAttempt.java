@@ -8,13 +8,18 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "quiz_attempts")
+@Table(name = "quiz_attempts", indexes = {
+    @Index(name = "idx_quiz_attempts_user_started", columnList = "user_id, started_at"),
+    @Index(name = "idx_quiz_attempts_completed_at", columnList = "completed_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class QuizAttempt {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "quiz_attempts_id")
+    @TableGenerator(name = "quiz_attempts_id", table = "id_generators", pkColumnName = "entity_name",
+        valueColumnName = "next_val", pkColumnValue = "quiz_attempts", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -2,10 +2,16 @@ package com.fiqhmaster.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Entity
@@ -41,11 +47,21 @@ public class ScheduledExam {
     @Column(name = "total_questions", nullable = false)
     private Integer totalQuestions;
     
-    @Column(name = "question_ids", columnDefinition = "TEXT")
-    private String questionIds; // Comma-separated question IDs
-    
-    @Column(name = "category_ids", columnDefinition = "TEXT")
-    private String categoryIds; // Comma-separated category IDs
+    // In the order the creator chose them; lazy, so kept out of equals/hashCode/toString
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "exam_questions", joinColumns = @JoinColumn(name = "exam_id"))
+    @OrderColumn(name = "position")
+    @Column(name = "question_id", nullable = false)
+    private List<Long> questionIds = new ArrayList<>();
+    
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "exam_categories", joinColumns = @JoinColumn(name = "exam_id"))
+    @Column(name = "category_id", nullable = false)
+    private Set<Long> categoryIds = new LinkedHashSet<>();
     
     @Column(name = "is_active")
     private Boolean isActive = true;
@@ -60,6 +76,10 @@ public class ScheduledExam {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
+    // Set once every participant has a final status after the exam ends
+    @Column(name = "finalized_at")
+    private LocalDateTime finalizedAt;
+    
     @PrePersist
     public void generateCode() {
         if (this.examCode == null) {
@@ -79,7 +99,11 @@ public class ScheduledExam {
     }
     
     public boolean isExpired() {
-        return LocalDateTime.now().isAfter(startTime.plusMinutes(durationMinutes));
+        return LocalDateTime.now().isAfter(getEndTime());
+    }
+    
+    public LocalDateTime getEndTime() {
+        return startTime.plusMinutes(durationMinutes);
     }
     
     public boolean canJoin() {
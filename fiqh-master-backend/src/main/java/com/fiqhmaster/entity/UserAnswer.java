@@ -14,7 +14,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class UserAnswer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_answers_id")
+    @TableGenerator(name = "user_answers_id", table = "id_generators", pkColumnName = "entity_name",
+        valueColumnName = "next_val", pkColumnValue = "user_answers", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
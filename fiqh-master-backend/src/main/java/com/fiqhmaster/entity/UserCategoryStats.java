@@ -0,0 +1,68 @@
+package com.fiqhmaster.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Running per-user, per-category totals over completed quizzes, kept up to date
+ * as each quiz completes so statistics never have to replay the attempt history.
+ */
+@Entity
+@Table(name = "user_category_stats", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"user_id", "category_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCategoryStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", nullable = false)
+    private Category category;
+    
+    @Column(name = "quizzes_taken", nullable = false)
+    private Integer quizzesTaken = 0;
+    
+    // Sum of the quizzes' question counts
+    @Column(name = "questions_total", nullable = false)
+    private Integer questionsTotal = 0;
+    
+    // Answers actually submitted
+    @Column(name = "answers_submitted", nullable = false)
+    private Integer answersSubmitted = 0;
+    
+    @Column(name = "correct_answers", nullable = false)
+    private Integer correctAnswers = 0;
+    
+    @Column(name = "distinct_questions", nullable = false)
+    private Integer distinctQuestions = 0;
+    
+    // Quizzes that produced a score, the divisor for the average
+    @Column(name = "scored_quizzes", nullable = false)
+    private Integer scoredQuizzes = 0;
+    
+    @Column(name = "score_sum", nullable = false)
+    private Double scoreSum = 0.0;
+    
+    @Column(name = "best_score")
+    private Double bestScore;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    public double getAverageScore() {
+        return scoredQuizzes > 0 ? scoreSum / scoredQuizzes : 0.0;
+    }
+}
@@ -0,0 +1,111 @@
+package com.fiqhmaster.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /actuator/database}: connection pool usage and wait times plus per-repository-method
+ * latencies, slowest first, in one response. The raw meters (hikaricp.connections.*,
+ * spring.data.repository.invocations) stay available under /actuator/metrics and /actuator/prometheus.
+ */
+@Component
+@Endpoint(id = "database")
+@RequiredArgsConstructor
+public class DatabaseMetricsEndpoint {
+    private static final String REPOSITORY_TIMER = "spring.data.repository.invocations";
+
+    private final MeterRegistry registry;
+
+    @ReadOperation
+    public Map<String, Object> database() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("pools", pools());
+        result.put("admission", admission());
+        result.put("repositories", repositories());
+        return result;
+    }
+
+    private Map<String, Object> pools() {
+        Map<String, Object> pools = new TreeMap<>();
+        for (Meter meter : registry.find("hikaricp.connections.max").meters()) {
+            String pool = meter.getId().getTag("pool");
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("active", gauge("hikaricp.connections.active", pool));
+            stats.put("idle", gauge("hikaricp.connections.idle", pool));
+            stats.put("pending", gauge("hikaricp.connections.pending", pool));
+            stats.put("total", gauge("hikaricp.connections", pool));
+            stats.put("max", gauge("hikaricp.connections.max", pool));
+            Timer acquire = registry.find("hikaricp.connections.acquire").tag("pool", pool).timer();
+            if (acquire != null) {
+                stats.put("acquire", latency(acquire));
+            }
+            pools.put(pool, stats);
+        }
+        return pools;
+    }
+
+    private Map<String, Object> admission() {
+        Gauge available = registry.find("fiqh.datasource.admission.available").gauge();
+        FunctionCounter rejected = registry.find("fiqh.datasource.admission.rejected").functionCounter();
+        if (available == null || rejected == null) {
+            return Map.of();
+        }
+        Map<String, Object> admission = new LinkedHashMap<>();
+        admission.put("available", value(available.value()));
+        admission.put("rejected", value(rejected.count()));
+        return admission;
+    }
+
+    private List<Map<String, Object>> repositories() {
+        List<Timer> timers = new ArrayList<>(registry.find(REPOSITORY_TIMER).timers());
+        timers.sort(Comparator.comparingDouble((Timer timer) -> timer.totalTime(TimeUnit.MILLISECONDS)).reversed());
+        List<Map<String, Object>> methods = new ArrayList<>(timers.size());
+        for (Timer timer : timers) {
+            Map<String, Object> method = new LinkedHashMap<>();
+            method.put("repository", timer.getId().getTag("repository"));
+            method.put("method", timer.getId().getTag("method"));
+            method.put("state", timer.getId().getTag("state"));
+            method.putAll(latency(timer));
+            methods.add(method);
+        }
+        return methods;
+    }
+
+    private Map<String, Object> latency(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", snapshot.count());
+        latency.put("totalMs", round(snapshot.total(TimeUnit.MILLISECONDS)));
+        latency.put("meanMs", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+        latency.put("maxMs", round(snapshot.max(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            latency.put("p" + Math.round(percentile.percentile() * 100) + "Ms", round(percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        return latency;
+    }
+
+    private Object gauge(String name, String pool) {
+        Gauge gauge = registry.find(name).tag("pool", pool).gauge();
+        return gauge != null ? value(gauge.value()) : null;
+    }
+
+    private static Object value(double value) {
+        return Double.isNaN(value) ? null : Math.round(value);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.fiqhmaster.metrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+// Counts entities Hibernate loads for the current request
+@Component
+@RequiredArgsConstructor
+public class EntityLoadCounter {
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void register() {
+        PostLoadEventListener listener = event -> {
+            RequestQueryStats stats = RequestQueryStats.current();
+            if (stats != null) {
+                stats.entityLoaded();
+            }
+        };
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getEventListenerRegistry()
+            .appendListeners(EventType.POST_LOAD, listener);
+    }
+}
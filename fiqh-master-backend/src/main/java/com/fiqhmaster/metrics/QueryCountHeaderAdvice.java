@@ -0,0 +1,37 @@
+package com.fiqhmaster.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Exposes the request's query counts as response headers; disabled in production
+@ControllerAdvice
+@ConditionalOnProperty(name = "fiqh.metrics.query-headers", havingValue = "true")
+public class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+    public static final String QUERY_COUNT = "X-Query-Count";
+    public static final String ENTITY_COUNT = "X-Entity-Count";
+    public static final String JDBC_TIME = "X-JDBC-Time-Ms";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            response.getHeaders().set(QUERY_COUNT, String.valueOf(stats.getStatements()));
+            response.getHeaders().set(ENTITY_COUNT, String.valueOf(stats.getEntitiesLoaded()));
+            response.getHeaders().set(JDBC_TIME, String.valueOf(stats.getJdbcNanos() / 1_000_000));
+        }
+        return body;
+    }
+}
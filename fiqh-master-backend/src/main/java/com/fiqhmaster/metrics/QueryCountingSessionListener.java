@@ -0,0 +1,35 @@
+package com.fiqhmaster.metrics;
+
+import org.hibernate.SessionEventListener;
+
+// Attached to every Hibernate session through hibernate.session.events.auto
+public class QueryCountingSessionListener implements SessionEventListener {
+    private long startedAt;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        executed();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        executed();
+    }
+
+    private void executed() {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.statementExecuted(System.nanoTime() - startedAt);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.fiqhmaster.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records, per controller method, how many SQL statements a request executed, how many
+ * entities it loaded and how long its statements ran (fiqh.request.statements,
+ * fiqh.request.entities, fiqh.request.jdbc), and warns about requests over the statement threshold.
+ */
+@Component
+@Slf4j
+public class QueryMetricsInterceptor implements AsyncHandlerInterceptor {
+    private final MeterRegistry registry;
+    private final int warnThreshold;
+
+    public QueryMetricsInterceptor(MeterRegistry registry,
+                                   @Value("${fiqh.metrics.statement-warn-threshold:50}") int warnThreshold) {
+        this.registry = registry;
+        this.warnThreshold = warnThreshold;
+    }
+
+    // The async dispatch that ends an event stream runs no handler code worth counting
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && request.getDispatcherType() != DispatcherType.ASYNC) {
+            RequestQueryStats.start();
+        }
+        return true;
+    }
+
+    // The handler returned an event stream: record what it did before the thread is released
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        afterCompletion(request, response, handler, null);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return;
+        }
+        RequestQueryStats stats = RequestQueryStats.finish();
+        if (stats == null) {
+            return;
+        }
+        String controller = method.getBeanType().getSimpleName();
+        String action = method.getMethod().getName();
+
+        DistributionSummary.builder("fiqh.request.statements")
+            .description("SQL statements executed per request")
+            .tags("controller", controller, "method", action)
+            .publishPercentiles(0.5, 0.99)
+            .register(registry)
+            .record(stats.getStatements());
+        DistributionSummary.builder("fiqh.request.entities")
+            .description("Entities loaded by Hibernate per request")
+            .tags("controller", controller, "method", action)
+            .register(registry)
+            .record(stats.getEntitiesLoaded());
+        Timer.builder("fiqh.request.jdbc")
+            .description("Time spent executing SQL statements per request")
+            .tags("controller", controller, "method", action)
+            .publishPercentiles(0.5, 0.99)
+            .register(registry)
+            .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.getStatements() > warnThreshold) {
+            log.warn("{}.{} executed {} SQL statements and loaded {} entities for {}",
+                controller, action, stats.getStatements(), stats.getEntitiesLoaded(), request.getRequestURI());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.fiqhmaster.migration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Copies the comma-separated question_ids and category_ids columns of scheduled exams
+ * into the exam_questions and exam_categories tables, keeping the question order. Each
+ * exam's old columns are cleared once copied, so the migration never repeats. The columns
+ * themselves are left in place because schema updates never drop them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExamQuestionMigration {
+
+    // Declared so the schema has been created or updated before this runs
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        if (!hasLegacyColumns()) {
+            return;
+        }
+        List<Map<String, Object>> exams = jdbcTemplate.queryForList(
+            "SELECT id, question_ids, category_ids FROM scheduled_exams " +
+            "WHERE question_ids IS NOT NULL OR category_ids IS NOT NULL");
+        for (Map<String, Object> exam : exams) {
+            long examId = ((Number) exam.get("id")).longValue();
+            List<Long> questionIds = parse((String) exam.get("question_ids"));
+            Set<Long> categoryIds = new LinkedHashSet<>(parse((String) exam.get("category_ids")));
+
+            // Rows from an interrupted earlier run are replaced, not duplicated
+            jdbcTemplate.update("DELETE FROM exam_questions WHERE exam_id = ?", examId);
+            jdbcTemplate.update("DELETE FROM exam_categories WHERE exam_id = ?", examId);
+            List<Object[]> questionRows = new ArrayList<>();
+            for (int position = 0; position < questionIds.size(); position++) {
+                questionRows.add(new Object[]{examId, position, questionIds.get(position)});
+            }
+            List<Object[]> categoryRows = new ArrayList<>();
+            for (Long categoryId : categoryIds) {
+                categoryRows.add(new Object[]{examId, categoryId});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO exam_questions (exam_id, position, question_id) VALUES (?, ?, ?)", questionRows);
+            jdbcTemplate.batchUpdate("INSERT INTO exam_categories (exam_id, category_id) VALUES (?, ?)", categoryRows);
+            jdbcTemplate.update("UPDATE scheduled_exams SET question_ids = NULL, category_ids = NULL WHERE id = ?", examId);
+        }
+        if (!exams.isEmpty()) {
+            log.info("Moved the question lists of {} scheduled exams into exam_questions", exams.size());
+        }
+    }
+
+    private boolean hasLegacyColumns() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : List.of("question_ids", "QUESTION_IDS")) {
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, "%", name)) {
+                    while (columns.next()) {
+                        if ("scheduled_exams".equalsIgnoreCase(columns.getString("TABLE_NAME"))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    private static List<Long> parse(String ids) {
+        if (ids == null || ids.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(ids.split(","))
+            .map(String::trim)
+            .filter(id -> !id.isEmpty())
+            .map(Long::valueOf)
+            .toList();
+    }
+}
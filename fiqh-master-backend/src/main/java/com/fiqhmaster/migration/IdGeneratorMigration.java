@@ -0,0 +1,46 @@
+package com.fiqhmaster.migration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves the pooled ID generators past any IDs handed out while these tables still
+ * used AUTO_INCREMENT, so that switching strategies never produces a duplicate key.
+ * Runs once the schema is in place and before anything writes to these tables.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdGeneratorMigration {
+    private static final List<String> TABLES = List.of("quiz_attempts", "user_answers", "exam_participants", "bookmarks");
+
+    // Declared so the schema has been created or updated before this runs
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        for (String table : TABLES) {
+            long next = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table, Long.class);
+            int updated = jdbcTemplate.update(
+                "UPDATE id_generators SET next_val = ? WHERE entity_name = ? AND next_val < ?", next, table, next);
+            if (updated == 0) {
+                Integer rows = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM id_generators WHERE entity_name = ?", Integer.class, table);
+                if (rows == 0) {
+                    jdbcTemplate.update("INSERT INTO id_generators (entity_name, next_val) VALUES (?, ?)", table, next);
+                    updated = 1;
+                }
+            }
+            if (updated > 0) {
+                log.info("ID generator for {} moved to {}", table, next);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.fiqhmaster.migration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills user_category_stats from the existing quiz history the first time the table
+ * is empty. From then on QuizService.completeQuiz keeps it up to date.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserCategoryStatsBackfill {
+    private static final String BACKFILL_SQL =
+        "INSERT INTO user_category_stats (user_id, category_id, quizzes_taken, questions_total, answers_submitted, " +
+        "correct_answers, distinct_questions, scored_quizzes, score_sum, best_score, updated_at) " +
+        "SELECT qa.user_id, qa.category_id, COUNT(*), COALESCE(SUM(qa.total_questions), 0), " +
+        "COALESCE(SUM(ac.answers), 0), COALESCE(SUM(qa.correct_answers), 0), " +
+        "(SELECT COUNT(DISTINCT ua.question_id) FROM user_answers ua " +
+        "JOIN quiz_attempts p ON p.id = ua.quiz_attempt_id " +
+        "WHERE p.user_id = qa.user_id AND p.category_id = qa.category_id AND p.completed = true), " +
+        "COUNT(qa.score_percentage), COALESCE(SUM(qa.score_percentage), 0), MAX(qa.score_percentage), CURRENT_TIMESTAMP " +
+        "FROM quiz_attempts qa " +
+        "LEFT JOIN (SELECT quiz_attempt_id, COUNT(*) AS answers FROM user_answers GROUP BY quiz_attempt_id) ac " +
+        "ON ac.quiz_attempt_id = qa.id " +
+        "WHERE qa.completed = true AND qa.category_id IS NOT NULL " +
+        "GROUP BY qa.user_id, qa.category_id";
+
+    // Declared so the schema has been created or updated before this runs
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void backfill() {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_category_stats", Integer.class);
+        if (existing > 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int rows = jdbcTemplate.update(BACKFILL_SQL);
+        if (rows > 0) {
+            log.info("Backfilled {} user_category_stats rows in {} ms", rows, System.currentTimeMillis() - start);
+        }
+    }
+}
@@ -2,13 +2,23 @@ package com.fiqhmaster.repository;
 
 import com.fiqhmaster.entity.Bookmark;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookmarkRepository extends JpaRepository<Bookmark, Long> {
     List<Bookmark> findByUserIdOrderByCreatedAtDesc(Long userId);
+    
+    @Query("SELECT b.question.id FROM Bookmark b WHERE b.user.id = :userId ORDER BY b.createdAt DESC")
+    List<Long> findQuestionIdsByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT b.question.id FROM Bookmark b WHERE b.user.id = :userId AND b.question.id IN :questionIds")
+    List<Long> findBookmarkedQuestionIds(@Param("userId") Long userId, @Param("questionIds") Collection<Long> questionIds);
+    
     Optional<Bookmark> findByUserIdAndQuestionId(Long userId, Long questionId);
     Boolean existsByUserIdAndQuestionId(Long userId, Long questionId);
     void deleteByUserIdAndQuestionId(Long userId, Long questionId);
@@ -0,0 +1,11 @@
+package com.fiqhmaster.repository;
+
+import com.fiqhmaster.entity.ExamAnswer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface ExamAnswerRepository extends JpaRepository<ExamAnswer, Long> {
+    List<ExamAnswer> findByParticipantId(Long participantId);
+}
@@ -3,7 +3,9 @@ package com.fiqhmaster.repository;
 import com.fiqhmaster.entity.ScheduledExam;
 import com.fiqhmaster.entity.ExamParticipant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,4 +19,40 @@ public interface ExamParticipantRepository extends JpaRepository<ExamParticipant
     List<ExamParticipant> findByUserId(Long userId);
     Boolean existsByExamIdAndUserId(Long examId, Long userId);
     Long countByExamId(Long examId);
+    
+    @Query("SELECT p FROM ExamParticipant p JOIN FETCH p.user WHERE p.exam.id = :examId")
+    List<ExamParticipant> findWithUserByExamId(@Param("examId") Long examId);
+    
+    @Query("SELECT p.user.id FROM ExamParticipant p WHERE p.exam.id = :examId")
+    List<Long> findUserIdsByExamId(@Param("examId") Long examId);
+    
+    @Query("SELECT p FROM ExamParticipant p JOIN FETCH p.exam JOIN FETCH p.user " +
+           "WHERE p.exam.id = :examId AND p.user.id = :userId")
+    Optional<ExamParticipant> findWithExamAndUser(@Param("examId") Long examId, @Param("userId") Long userId);
+    
+    @Query("SELECT p FROM ExamParticipant p JOIN FETCH p.user WHERE p.exam.id = :examId AND p.status = :status")
+    List<ExamParticipant> findWithUserByExamIdAndStatus(@Param("examId") Long examId, @Param("status") String status);
+    
+    @Query("SELECT p.score FROM ExamParticipant p WHERE p.id = :id")
+    Integer findScoreById(@Param("id") Long id);
+    
+    // Atomic increment; matches nothing once the participant has finished
+    @Modifying
+    @Query("UPDATE ExamParticipant p SET p.score = COALESCE(p.score, 0) + :delta WHERE p.id = :id AND p.status = 'STARTED'")
+    int addScore(@Param("id") Long id, @Param("delta") int delta);
+    
+    @Modifying
+    @Query("UPDATE ExamParticipant p SET p.status = 'COMPLETED', p.completedAt = :completedAt, " +
+           "p.score = COALESCE(p.score, 0) WHERE p.id = :id AND p.status = 'STARTED'")
+    int complete(@Param("id") Long id, @Param("completedAt") LocalDateTime completedAt);
+    
+    // Participants still answering when the exam ends keep what they submitted so far
+    @Modifying
+    @Query("UPDATE ExamParticipant p SET p.status = 'COMPLETED', p.completedAt = :endTime, " +
+           "p.score = COALESCE(p.score, 0) WHERE p.exam.id = :examId AND p.status = 'STARTED'")
+    int completeStarted(@Param("examId") Long examId, @Param("endTime") LocalDateTime endTime);
+    
+    @Modifying
+    @Query("UPDATE ExamParticipant p SET p.status = 'ABSENT' WHERE p.exam.id = :examId AND p.status = 'REGISTERED'")
+    int markAbsent(@Param("examId") Long examId);
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -39,21 +40,11 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     // Count by category and difficulty
     Long countByCategoryIdAndDifficulty(Long categoryId, String difficulty);
     
-    // Random questions
-    @Query(value = "SELECT * FROM questions ORDER BY RAND() LIMIT :limit", nativeQuery = true)
-    List<Question> findRandomQuestions(@Param("limit") int limit);
+    // Questions with their category, for building cached question content
+    @Query("SELECT q FROM Question q JOIN FETCH q.category WHERE q.id IN :ids")
+    List<Question> findWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
     
-    // Random questions by category
-    @Query(value = "SELECT * FROM questions WHERE category_id = :categoryId ORDER BY RAND() LIMIT :limit", nativeQuery = true)
-    List<Question> findRandomQuestionsByCategory(
-        @Param("categoryId") Long categoryId, 
-        @Param("limit") int limit
-    );
-    
-    // Random questions by difficulty
-    @Query(value = "SELECT * FROM questions WHERE difficulty = :difficulty ORDER BY RAND() LIMIT :limit", nativeQuery = true)
-    List<Question> findRandomQuestionsByDifficulty(
-        @Param("difficulty") String difficulty, 
-        @Param("limit") int limit
-    );
+    // Keys used by the in-memory random-selection index: id, category, difficulty, marja
+    @Query("SELECT q.id, q.category.id, q.difficulty, m.id FROM Question q LEFT JOIN q.marja m")
+    List<Object[]> findIndexKeys();
 }
\ No newline at end of file
@@ -2,10 +2,13 @@ package com.fiqhmaster.repository;
 
 import com.fiqhmaster.entity.QuizAttempt;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long> {
@@ -18,4 +21,42 @@ public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long>
     
     @Query("SELECT COUNT(qa) FROM QuizAttempt qa WHERE qa.user.id = :userId AND qa.completed = true")
     Long countCompletedQuizzesByUser(@Param("userId") Long userId);
+    
+    @Query("SELECT qa.startedAt AS startedAt, qa.totalQuestions AS totalQuestions, qa.correctAnswers AS correctAnswers, " +
+           "qa.scorePercentage AS scorePercentage FROM QuizAttempt qa " +
+           "WHERE qa.user.id = :userId AND qa.completed = true AND qa.startedAt > :since")
+    List<AttemptSummary> findCompletedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+    
+    @Query("SELECT qa.id AS attemptId, qa.user.id AS userId, qa.correctAnswers AS correctAnswers, qa.totalQuestions AS totalQuestions, " +
+           "qa.completedAt AS completedAt FROM QuizAttempt qa " +
+           "WHERE qa.completed = true AND qa.completedAt >= :from AND qa.completedAt < :to")
+    List<CompletedScore> findCompletedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT qa.user.id AS userId, qa.completed AS completed FROM QuizAttempt qa WHERE qa.id = :id")
+    Optional<AttemptOwnership> findOwnershipById(@Param("id") Long id);
+    
+    // Atomic increment; matches nothing once the attempt is completed
+    @Modifying
+    @Query("UPDATE QuizAttempt qa SET qa.correctAnswers = qa.correctAnswers + :delta WHERE qa.id = :id AND qa.completed = false")
+    int addCorrectAnswers(@Param("id") Long id, @Param("delta") int delta);
+    
+    interface AttemptSummary {
+        LocalDateTime getStartedAt();
+        Integer getTotalQuestions();
+        Integer getCorrectAnswers();
+        Double getScorePercentage();
+    }
+    
+    interface CompletedScore {
+        Long getAttemptId();
+        Long getUserId();
+        Integer getCorrectAnswers();
+        Integer getTotalQuestions();
+        LocalDateTime getCompletedAt();
+    }
+    
+    interface AttemptOwnership {
+        Long getUserId();
+        Boolean getCompleted();
+    }
 }
\ No newline at end of file
@@ -3,7 +3,9 @@ package com.fiqhmaster.repository;
 import com.fiqhmaster.entity.ScheduledExam;
 import com.fiqhmaster.entity.ExamParticipant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -12,9 +14,30 @@ import java.util.Optional;
 @Repository
 public interface ScheduledExamRepository extends JpaRepository<ScheduledExam, Long> {
     Optional<ScheduledExam> findByExamCode(String examCode);
+    
+    @Query("SELECT e FROM ScheduledExam e JOIN FETCH e.creator WHERE e.id = :id")
+    Optional<ScheduledExam> findWithCreatorById(@Param("id") Long id);
     List<ScheduledExam> findByCreatorIdOrderByCreatedAtDesc(Long creatorId);
     
-    @Query("SELECT e FROM ScheduledExam e WHERE e.isActive = true AND e.startTime > :now")
-    List<ScheduledExam> findUpcomingExams(LocalDateTime now);
+    // Takes a seat in one statement; 0 means the exam is full (or inactive). Pending inserts are flushed first
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ScheduledExam e SET e.currentParticipants = e.currentParticipants + 1 " +
+           "WHERE e.id = :id AND e.isActive = true " +
+           "AND (e.maxParticipants IS NULL OR e.currentParticipants < e.maxParticipants)")
+    int takeSeat(@Param("id") Long id);
+    
+    @Query("SELECT q FROM ScheduledExam e JOIN e.questionIds q WHERE e.id = :examId ORDER BY INDEX(q)")
+    List<Long> findQuestionIdsByExamId(@Param("examId") Long examId);
+    
+    @Modifying
+    @Query("UPDATE ScheduledExam e SET e.finalizedAt = :now WHERE e.id = :id AND e.isActive = true AND e.finalizedAt IS NULL")
+    int markFinalized(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    // Started and not yet finalized; whether they have ended depends on each exam's duration
+    @Query("SELECT e FROM ScheduledExam e WHERE e.isActive = true AND e.finalizedAt IS NULL AND e.startTime < :now")
+    List<ScheduledExam> findUnfinalizedStartedBefore(@Param("now") LocalDateTime now);
+    
+    @Query("SELECT e FROM ScheduledExam e WHERE e.isActive = true AND e.startTime > :now AND e.startTime <= :until")
+    List<ScheduledExam> findUpcomingExams(@Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
 }
 
@@ -11,6 +11,16 @@ import java.util.List;
 public interface UserAnswerRepository extends JpaRepository<UserAnswer, Long> {
     List<UserAnswer> findByQuizAttemptId(Long quizAttemptId);
     
+    long countByQuizAttemptId(Long quizAttemptId);
+    
+    // Questions of this attempt the user had not answered in an earlier completed quiz of the category
+    @Query("SELECT COUNT(DISTINCT ua.question.id) FROM UserAnswer ua WHERE ua.quizAttempt.id = :attemptId " +
+           "AND NOT EXISTS (SELECT 1 FROM UserAnswer p WHERE p.question.id = ua.question.id " +
+           "AND p.quizAttempt.id <> :attemptId AND p.quizAttempt.user.id = :userId " +
+           "AND p.quizAttempt.category.id = :categoryId AND p.quizAttempt.completed = true)")
+    long countQuestionsFirstSeen(@Param("attemptId") Long attemptId, @Param("userId") Long userId,
+                                 @Param("categoryId") Long categoryId);
+    
     @Query("SELECT ua FROM UserAnswer ua WHERE ua.quizAttempt.user.id = :userId AND ua.isCorrect = false ORDER BY ua.answeredAt DESC")
     List<UserAnswer> findIncorrectAnswersByUser(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.fiqhmaster.repository;
+
+import com.fiqhmaster.entity.UserCategoryStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserCategoryStatsRepository extends JpaRepository<UserCategoryStats, Long> {
+    @Query("SELECT s FROM UserCategoryStats s JOIN FETCH s.category WHERE s.user.id = :userId")
+    List<UserCategoryStats> findByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT s.user.id, s.category.id, s.quizzesTaken, s.correctAnswers FROM UserCategoryStats s")
+    List<Object[]> findLeaderboardRows();
+    
+    @Query("SELECT s.quizzesTaken AS quizzesTaken, s.correctAnswers AS correctAnswers FROM UserCategoryStats s " +
+           "WHERE s.user.id = :userId AND s.category.id = :categoryId")
+    Optional<CategoryTotals> findTotals(@Param("userId") Long userId, @Param("categoryId") Long categoryId);
+    
+    // Folds one completed quiz into the row, creating it on the first one; a single statement, so
+    // a user's first two quizzes in a category completing together cannot both try to insert it
+    @Modifying
+    @Query(value = "INSERT INTO user_category_stats (user_id, category_id, quizzes_taken, questions_total, " +
+           "answers_submitted, correct_answers, distinct_questions, scored_quizzes, score_sum, best_score, updated_at) " +
+           "VALUES (:userId, :categoryId, 1, :questions, :answers, :correct, :newQuestions, :scored, :score, " +
+           "CASE WHEN :scored = 1 THEN :score END, CURRENT_TIMESTAMP) " +
+           "ON DUPLICATE KEY UPDATE " +
+           "quizzes_taken = quizzes_taken + 1, " +
+           "questions_total = questions_total + :questions, " +
+           "answers_submitted = answers_submitted + :answers, " +
+           "correct_answers = correct_answers + :correct, " +
+           "distinct_questions = distinct_questions + :newQuestions, " +
+           "scored_quizzes = scored_quizzes + :scored, " +
+           "score_sum = score_sum + :score, " +
+           "best_score = CASE WHEN :scored = 1 AND (best_score IS NULL OR best_score < :score) THEN :score ELSE best_score END, " +
+           "updated_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    void accumulate(@Param("userId") Long userId, @Param("categoryId") Long categoryId,
+                    @Param("questions") int questions, @Param("answers") int answers,
+                    @Param("correct") int correct, @Param("newQuestions") int newQuestions,
+                    @Param("scored") int scored, @Param("score") double score);
+    
+    interface CategoryTotals {
+        Integer getQuizzesTaken();
+        Integer getCorrectAnswers();
+    }
+}
@@ -3,6 +3,7 @@ package com.fiqhmaster.repository;
 import com.fiqhmaster.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 import java.util.List;
@@ -12,9 +13,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
     
-    @Query("SELECT u FROM User u ORDER BY u.totalCorrectAnswers DESC, u.totalQuizzes DESC")
-    List<User> findTopUsers();
+    @Query("SELECT u.id, u.fullName, u.totalQuizzes, u.totalCorrectAnswers, u.currentStreak, u.currentRank FROM User u")
+    List<Object[]> findLeaderboardRows();
     
-    @Query("SELECT u FROM User u WHERE u.currentStreak > 0 ORDER BY u.currentStreak DESC")
-    List<User> findUsersByStreak();
+    @Query("SELECT u.fullName FROM User u WHERE u.id = :id")
+    Optional<String> findFullNameById(@Param("id") Long id);
 }
\ No newline at end of file
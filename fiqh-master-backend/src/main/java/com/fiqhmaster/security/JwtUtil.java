@@ -1,14 +1,23 @@
 package com.fiqhmaster.security;
 
+import com.fiqhmaster.cache.LruCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
-public class JwtUtil {
+public class JwtUtil implements MeterBinder {
     
     @Value("${jwt.secret}")
     private String secret;
@@ -16,8 +25,22 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheSize;
+    
+    private SecretKey signingKey;
+    private JwtParser parser;
+    
+    // Verified tokens keyed by their SHA-256, so raw bearer tokens are never held in memory
+    private LruCache<String, VerifiedToken> verified;
+    
+    public record VerifiedToken(Long userId, String email, long expiresAtMillis) {}
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verified = new LruCache<>(cacheSize);
     }
     
     public String generateToken(String email, Long userId) {
@@ -29,39 +52,67 @@ public class JwtUtil {
                 .claim("userId", userId)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
-    public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    // Verifies the signature once per distinct token; later calls are a hash lookup until the token expires
+    public Optional<VerifiedToken> authenticate(String token) {
+        String key = hash(token);
+        VerifiedToken cached = verified.get(key);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > System.currentTimeMillis()) {
+                return Optional.of(cached);
+            }
+            verified.invalidate(key);
+            return Optional.empty();
+        }
         
-        return claims.getSubject();
+        Claims claims;
+        try {
+            claims = parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        Date expiresAt = claims.getExpiration();
+        VerifiedToken result = new VerifiedToken(claims.get("userId", Long.class), claims.getSubject(),
+                expiresAt != null ? expiresAt.getTime() : Long.MAX_VALUE);
+        verified.put(key, result);
+        return Optional.of(result);
+    }
+    
+    public String getEmailFromToken(String token) {
+        return parseClaims(token).getSubject();
     }
     
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        return claims.get("userId", Long.class);
+        return parseClaims(token).get("userId", Long.class);
     }
     
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
+            parseClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        verified.registerMetrics(registry, "jwt");
+    }
+    
+    private Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+    
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -0,0 +1,130 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.cache.LruCache;
+import com.fiqhmaster.repository.BookmarkRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongPredicate;
+
+/**
+ * Answers "which of these questions has this user bookmarked". With the cache enabled each
+ * user's bookmarks are held as a sorted array of question IDs, kept current by BookmarkService;
+ * otherwise one query per lookup returns the bookmarked subset.
+ */
+@Component
+public class BookmarkIndex implements MeterBinder {
+    private static final int STRIPES = 64;
+
+    private final BookmarkRepository bookmarkRepository;
+    private final ContentVersions contentVersions;
+    private final boolean cacheEnabled;
+    private final LruCache<Long, long[]> bookmarks;
+    // Bumped on every change so an array loaded concurrently with a change is not cached
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+
+    public BookmarkIndex(BookmarkRepository bookmarkRepository,
+                         ContentVersions contentVersions,
+                         @Value("${fiqh.cache.bookmarks.enabled:true}") boolean cacheEnabled,
+                         @Value("${fiqh.cache.bookmarks.max-users:50000}") int maxUsers) {
+        this.bookmarkRepository = bookmarkRepository;
+        this.contentVersions = contentVersions;
+        this.cacheEnabled = cacheEnabled;
+        this.bookmarks = new LruCache<>(maxUsers);
+    }
+
+    public LongPredicate bookmarkedAmong(Long userId, Collection<Long> questionIds) {
+        if (cacheEnabled) {
+            long[] bookmarked = bookmarked(userId);
+            return questionId -> Arrays.binarySearch(bookmarked, questionId) >= 0;
+        }
+        if (questionIds.isEmpty()) {
+            return questionId -> false;
+        }
+        long[] bookmarked = bookmarkRepository.findBookmarkedQuestionIds(userId, questionIds).stream()
+            .mapToLong(Long::longValue)
+            .sorted()
+            .toArray();
+        return questionId -> Arrays.binarySearch(bookmarked, questionId) >= 0;
+    }
+
+    public boolean isBookmarked(Long userId, Long questionId) {
+        return bookmarkedAmong(userId, List.of(questionId)).test(questionId);
+    }
+
+    public void bookmarkAdded(Long userId, Long questionId) {
+        AfterCommit.run(() -> update(userId, questionId, true));
+    }
+
+    public void bookmarkRemoved(Long userId, Long questionId) {
+        AfterCommit.run(() -> update(userId, questionId, false));
+    }
+
+    private long[] bookmarked(Long userId) {
+        long[] cached = bookmarks.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = stamps.get(stripe(userId));
+        long[] loaded = bookmarkRepository.findQuestionIdsByUserId(userId).stream()
+            .mapToLong(Long::longValue)
+            .sorted()
+            .distinct()
+            .toArray();
+        synchronized (this) {
+            if (stamps.get(stripe(userId)) == stamp) {
+                bookmarks.put(userId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    // Arrays are never mutated in place; readers may still hold the previous one
+    private synchronized void update(Long userId, Long questionId, boolean bookmarked) {
+        stamps.incrementAndGet(stripe(userId));
+        long[] current = bookmarks.get(userId);
+        if (current != null) {
+            bookmarks.put(userId, bookmarked ? with(current, questionId) : without(current, questionId));
+        }
+        contentVersions.changed(ContentVersions.Content.BOOKMARKS, userId);
+    }
+
+    private static long[] with(long[] sorted, long questionId) {
+        int index = Arrays.binarySearch(sorted, questionId);
+        if (index >= 0) {
+            return sorted;
+        }
+        int insertAt = -index - 1;
+        long[] updated = new long[sorted.length + 1];
+        System.arraycopy(sorted, 0, updated, 0, insertAt);
+        updated[insertAt] = questionId;
+        System.arraycopy(sorted, insertAt, updated, insertAt + 1, sorted.length - insertAt);
+        return updated;
+    }
+
+    private static long[] without(long[] sorted, long questionId) {
+        int index = Arrays.binarySearch(sorted, questionId);
+        if (index < 0) {
+            return sorted;
+        }
+        long[] updated = new long[sorted.length - 1];
+        System.arraycopy(sorted, 0, updated, 0, index);
+        System.arraycopy(sorted, index + 1, updated, index, sorted.length - index - 1);
+        return updated;
+    }
+
+    private static int stripe(Long userId) {
+        return (int) (userId & (STRIPES - 1));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bookmarks.registerMetrics(registry, "bookmarks");
+    }
+}
@@ -8,7 +8,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.Arrays;
 
 @Service
 @RequiredArgsConstructor
@@ -16,6 +15,8 @@ public class BookmarkService {
     private final BookmarkRepository bookmarkRepository;
     private final UserRepository userRepository;
     private final QuestionRepository questionRepository;
+    private final QuestionContentCache questionContentCache;
+    private final BookmarkIndex bookmarkIndex;
     
     @Transactional
     public void addBookmark(Long userId, Long questionId, String notes) {
@@ -35,11 +36,13 @@ public class BookmarkService {
         bookmark.setNotes(notes);
         
         bookmarkRepository.save(bookmark);
+        bookmarkIndex.bookmarkAdded(userId, questionId);
     }
     
     @Transactional
     public void removeBookmark(Long userId, Long questionId) {
         bookmarkRepository.deleteByUserIdAndQuestionId(userId, questionId);
+        bookmarkIndex.bookmarkRemoved(userId, questionId);
     }
     
     @Transactional
@@ -52,35 +55,9 @@ public class BookmarkService {
     }
     
     public List<QuestionDTO> getUserBookmarks(Long userId) {
-        return bookmarkRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
-            .map(bookmark -> toQuestionDTO(bookmark.getQuestion(), userId))
+        List<Long> questionIds = bookmarkRepository.findQuestionIdsByUserId(userId);
+        return questionContentCache.getAll(questionIds).stream()
+            .map(question -> question.toDTO(true))
             .collect(Collectors.toList());
     }
-    
-    private QuestionDTO toQuestionDTO(Question question, Long userId) {
-        QuestionDTO dto = new QuestionDTO();
-        dto.setId(question.getId());
-        dto.setCategoryId(question.getCategory().getId());
-        dto.setCategoryName(question.getCategory().getNameAr());
-        dto.setQuestionAr(question.getQuestionAr());
-        dto.setQuestionEn(question.getQuestionEn());
-        dto.setDifficulty(question.getDifficulty());
-        dto.setIsBookmarked(true);
-        
-        dto.setOptionsAr(Arrays.asList(
-            question.getOptionAAr(),
-            question.getOptionBAr(),
-            question.getOptionCAr(),
-            question.getOptionDAr()
-        ));
-        
-        dto.setOptionsEn(Arrays.asList(
-            question.getOptionAEn(),
-            question.getOptionBEn(),
-            question.getOptionCEn(),
-            question.getOptionDEn()
-        ));
-        
-        return dto;
-    }
 }
\ No newline at end of file
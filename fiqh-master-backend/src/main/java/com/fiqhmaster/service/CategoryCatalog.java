@@ -0,0 +1,95 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.dto.CategoryDTO;
+import com.fiqhmaster.entity.Category;
+import com.fiqhmaster.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Categories with their question counts, served from an immutable snapshot. Counts come
+ * from {@link QuestionIndex}, so the snapshot is rebuilt only when the index version moves
+ * or a category changes; the ETag is a digest of the snapshot's content.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryCatalog {
+    private final CategoryRepository categoryRepository;
+    private final QuestionIndex questionIndex;
+
+    private final Lock lock = new ReentrantLock();
+    private volatile List<Category> categories;
+    private volatile Snapshot snapshot;
+
+    public Snapshot snapshot() {
+        long questionVersion = questionIndex.version();
+        Snapshot current = snapshot;
+        if (current != null && current.questionVersion() == questionVersion && categories != null) {
+            return current;
+        }
+        lock.lock();
+        try {
+            current = snapshot;
+            if (current != null && current.questionVersion() == questionVersion && categories != null) {
+                return current;
+            }
+            if (categories == null) {
+                categories = List.copyOf(categoryRepository.findAll());
+            }
+            current = build(categories, questionVersion);
+            snapshot = current;
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void categoriesChanged() {
+        categories = null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Snapshot loaded = snapshot();
+        log.info("Category catalog built: {} categories", loaded.categories().size());
+    }
+
+    private Snapshot build(List<Category> source, long questionVersion) {
+        List<CategoryDTO> dtos = new ArrayList<>(source.size());
+        Map<Long, CategoryDTO> byId = new HashMap<>();
+        for (Category category : source) {
+            CategoryDTO dto = toDTO(category);
+            dtos.add(dto);
+            byId.put(dto.getId(), dto);
+        }
+        String etag = DigestUtils.md5DigestAsHex(dtos.toString().getBytes(StandardCharsets.UTF_8));
+        return new Snapshot(List.copyOf(dtos), Map.copyOf(byId), "\"" + etag + "\"", questionVersion);
+    }
+
+    private CategoryDTO toDTO(Category category) {
+        return new CategoryDTO(
+            category.getId(),
+            category.getNameAr(),
+            category.getNameEn(),
+            category.getDescriptionAr(),
+            category.getDescriptionEn(),
+            category.getIcon(),
+            category.getColor(),
+            category.getDisplayOrder(),
+            questionIndex.count(category.getId(), null, null),
+            Collections.unmodifiableMap(questionIndex.countsByDifficulty(category.getId())),
+            Collections.unmodifiableMap(questionIndex.countsByMarja(category.getId())));
+    }
+
+    public record Snapshot(List<CategoryDTO> categories, Map<Long, CategoryDTO> byId, String etag, long questionVersion) {}
+}
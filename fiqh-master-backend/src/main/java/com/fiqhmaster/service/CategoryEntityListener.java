@@ -0,0 +1,23 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.entity.Category;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Drops the cached category list once a category change commits
+public class CategoryEntityListener {
+    private final ObjectProvider<CategoryCatalog> categoryCatalog;
+
+    public CategoryEntityListener(ObjectProvider<CategoryCatalog> categoryCatalog) {
+        this.categoryCatalog = categoryCatalog;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Category category) {
+        categoryCatalog.ifAvailable(catalog -> AfterCommit.run(catalog::categoriesChanged));
+    }
+}
@@ -0,0 +1,65 @@
+package com.fiqhmaster.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Version stamps for read-mostly content, used to build HTTP ETags. Writers bump a stamp
+ * once their change is visible (after commit). Keyed content bumps one of a fixed number
+ * of stripes, so a key sharing the stripe only costs a client one full response. The
+ * epoch keeps tags from another process or an earlier run from ever matching.
+ */
+@Component
+public class ContentVersions {
+    private static final int STRIPES = 1024;
+
+    public enum Content { QUESTIONS, BOOKMARKS, LEADERBOARD, EXAMS }
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final Map<Content, AtomicLong> versions = new EnumMap<>(Content.class);
+    private final Map<Content, AtomicLongArray> keyedVersions = new EnumMap<>(Content.class);
+
+    public ContentVersions() {
+        for (Content content : Content.values()) {
+            versions.put(content, new AtomicLong());
+            keyedVersions.put(content, new AtomicLongArray(STRIPES));
+        }
+    }
+
+    public long current(Content content) {
+        return versions.get(content).get();
+    }
+
+    public long current(Content content, Object key) {
+        return keyedVersions.get(content).get(stripe(key));
+    }
+
+    public void changed(Content content) {
+        versions.get(content).incrementAndGet();
+    }
+
+    public void changed(Content content, Object key) {
+        keyedVersions.get(content).incrementAndGet(stripe(key));
+        versions.get(content).incrementAndGet();
+    }
+
+    // Read the versions before the data they describe: a tag may then be older than the body, never newer
+    public String etag(Object... parts) {
+        StringJoiner tag = new StringJoiner(".", "\"" + epoch + ".", "\"");
+        for (Object part : parts) {
+            tag.add(String.valueOf(part));
+        }
+        return tag.toString();
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
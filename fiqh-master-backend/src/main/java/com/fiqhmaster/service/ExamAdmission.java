@@ -0,0 +1,117 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.entity.ScheduledExam;
+import com.fiqhmaster.repository.ExamParticipantRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Seat counters and participant sets for exams that are being joined. A join first takes
+ * a seat here without touching the database, so a full exam or a repeated join is turned
+ * away in memory; the seat is handed back if the joining transaction rolls back. The
+ * conditional seat update and the (exam_id, user_id) unique key stay authoritative.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExamAdmission implements MeterBinder {
+    private final ExamParticipantRepository examParticipantRepository;
+
+    private final Map<Long, Seats> seats = new ConcurrentHashMap<>();
+    private final Lock loadLock = new ReentrantLock();
+    private volatile Counter admitted;
+    private volatile Counter full;
+    private volatile Counter duplicate;
+
+    public void admit(ScheduledExam exam, Long userId) {
+        Seats examSeats = seats(exam);
+        if (!examSeats.members().add(userId)) {
+            increment(duplicate);
+            throw new IllegalArgumentException("أنت مسجل بالفعل في هذا الاختبار");
+        }
+        if (!examSeats.tryTake()) {
+            examSeats.members().remove(userId);
+            increment(full);
+            throw new IllegalArgumentException("الاختبار ممتلئ");
+        }
+        AfterCommit.onRollback(() -> {
+            examSeats.taken().decrementAndGet();
+            examSeats.members().remove(userId);
+        });
+        increment(admitted);
+    }
+
+    // Loads the seat counter ahead of the first join
+    public void preload(ScheduledExam exam) {
+        seats(exam);
+    }
+
+    public void evict(Long examId) {
+        seats.remove(examId);
+    }
+
+    private Seats seats(ScheduledExam exam) {
+        Seats examSeats = seats.get(exam.getId());
+        if (examSeats != null) {
+            return examSeats;
+        }
+        loadLock.lock();
+        try {
+            examSeats = seats.get(exam.getId());
+            if (examSeats == null) {
+                Set<Long> members = ConcurrentHashMap.newKeySet();
+                members.addAll(examParticipantRepository.findUserIdsByExamId(exam.getId()));
+                int taken = Math.max(members.size(), exam.getCurrentParticipants());
+                examSeats = new Seats(exam.getMaxParticipants(), new AtomicInteger(taken), members);
+                seats.put(exam.getId(), examSeats);
+                log.debug("Loaded seats for exam {}: {} taken of {}", exam.getId(), taken, exam.getMaxParticipants());
+            }
+            return examSeats;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fiqh.exam.admission.exams", seats, Map::size)
+            .description("Exams with seat counters held in memory")
+            .register(registry);
+        admitted = Counter.builder("fiqh.exam.joins").tag("outcome", "admitted").register(registry);
+        full = Counter.builder("fiqh.exam.joins").tag("outcome", "full").register(registry);
+        duplicate = Counter.builder("fiqh.exam.joins").tag("outcome", "duplicate").register(registry);
+    }
+
+    // capacity is null for exams without a participant limit
+    private record Seats(Integer capacity, AtomicInteger taken, Set<Long> members) {
+        boolean tryTake() {
+            while (true) {
+                int current = taken.get();
+                if (capacity != null && current >= capacity) {
+                    return false;
+                }
+                if (taken.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
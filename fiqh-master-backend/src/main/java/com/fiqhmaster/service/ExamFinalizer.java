@@ -0,0 +1,25 @@
+package com.fiqhmaster.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Gives every participant of an ended exam a final status, one exam per transaction
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExamFinalizer {
+    private final ScheduledExamService scheduledExamService;
+
+    @Scheduled(fixedDelayString = "${fiqh.exams.finalize-interval-ms:30000}")
+    public void finalizeEndedExams() {
+        for (Long examId : scheduledExamService.findExamsToFinalize()) {
+            try {
+                scheduledExamService.finalizeExam(examId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to finalize exam {}, will retry", examId, e);
+            }
+        }
+    }
+}
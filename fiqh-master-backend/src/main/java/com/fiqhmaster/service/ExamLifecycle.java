@@ -0,0 +1,197 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.entity.ScheduledExam;
+import com.fiqhmaster.repository.ScheduledExamRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Walks every upcoming exam through its life on a timing wheel, so the first second of an exam
+ * finds its state already in memory. Before the start the paper, seat counters and scoreboard
+ * are loaded. At the start the paper is checked against the current questions. At the end seats
+ * are released, and after the submission grace the exam is finalized. Once its results have had
+ * time to be read, its state is dropped. A periodic refresh plans the exams starting within the
+ * horizon; ExamFinalizer still covers exams this instance never planned.
+ */
+@Component
+@Slf4j
+public class ExamLifecycle implements MeterBinder {
+    private static final int WHEEL_BUCKETS = 4096;
+
+    enum Phase { WARM, START, END, FINALIZE, EVICT }
+
+    private record Plan(LocalDateTime startTime, LocalDateTime endTime) {
+    }
+
+    private record Step(Long examId, Phase phase, Plan plan) {
+    }
+
+    private final ScheduledExamRepository scheduledExamRepository;
+    private final ScheduledExamService scheduledExamService;
+    private final ExamPaperCache examPaperCache;
+    private final ExamAdmission examAdmission;
+    private final ExamScoreboard examScoreboard;
+    private final long warmLeadMs;
+    private final long horizonMs;
+    private final long retentionMs;
+
+    private final Map<Long, Plan> plans = new ConcurrentHashMap<>();
+    private final Lock wheelLock = new ReentrantLock();
+    private final TimeWheel<Step> wheel;
+    private volatile Map<Phase, Counter> stepsRun = Map.of();
+
+    public ExamLifecycle(ScheduledExamRepository scheduledExamRepository,
+                         ScheduledExamService scheduledExamService,
+                         ExamPaperCache examPaperCache,
+                         ExamAdmission examAdmission,
+                         ExamScoreboard examScoreboard,
+                         @Value("${fiqh.exams.lifecycle.tick-ms:1000}") long tickMs,
+                         @Value("${fiqh.exams.lifecycle.warm-lead-ms:300000}") long warmLeadMs,
+                         @Value("${fiqh.exams.lifecycle.horizon-ms:3600000}") long horizonMs,
+                         @Value("${fiqh.exams.lifecycle.retention-ms:1800000}") long retentionMs) {
+        this.scheduledExamRepository = scheduledExamRepository;
+        this.scheduledExamService = scheduledExamService;
+        this.examPaperCache = examPaperCache;
+        this.examAdmission = examAdmission;
+        this.examScoreboard = examScoreboard;
+        this.warmLeadMs = warmLeadMs;
+        this.horizonMs = horizonMs;
+        this.retentionMs = retentionMs;
+        this.wheel = new TimeWheel<>(tickMs, WHEEL_BUCKETS, System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${fiqh.exams.lifecycle.refresh-interval-ms:60000}")
+    public void refresh() {
+        refresh(LocalDateTime.now());
+    }
+
+    @Scheduled(fixedRateString = "${fiqh.exams.lifecycle.tick-ms:1000}")
+    public void tick() {
+        advance(System.currentTimeMillis());
+    }
+
+    void refresh(LocalDateTime now) {
+        List<ScheduledExam> upcoming = scheduledExamRepository.findUpcomingExams(now, now.plus(Duration.ofMillis(horizonMs)));
+        Set<Long> listed = new HashSet<>();
+        int planned = 0;
+        int pending;
+        wheelLock.lock();
+        try {
+            for (ScheduledExam exam : upcoming) {
+                listed.add(exam.getId());
+                Plan plan = new Plan(exam.getStartTime(), exam.getEndTime());
+                if (!plan.equals(plans.get(exam.getId()))) {
+                    // Steps of a replaced plan are skipped when they come due
+                    plans.put(exam.getId(), plan);
+                    schedule(exam.getId(), plan);
+                    planned++;
+                }
+            }
+            // Not started yet and no longer listed: cancelled
+            plans.entrySet().removeIf(entry -> entry.getValue().startTime().isAfter(now) && !listed.contains(entry.getKey()));
+            pending = wheel.size();
+        } finally {
+            wheelLock.unlock();
+        }
+        if (planned > 0) {
+            log.debug("Planned {} upcoming exams, {} timers pending", planned, pending);
+        }
+    }
+
+    void advance(long nowMillis) {
+        List<Step> due;
+        wheelLock.lock();
+        try {
+            due = wheel.advance(nowMillis);
+        } finally {
+            wheelLock.unlock();
+        }
+        for (Step step : due) {
+            if (plans.get(step.examId()) != step.plan()) {
+                continue;
+            }
+            try {
+                run(step);
+                Counter counter = stepsRun.get(step.phase());
+                if (counter != null) {
+                    counter.increment();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Exam {} lifecycle step {} failed", step.examId(), step.phase(), e);
+            }
+        }
+    }
+
+    private void schedule(Long examId, Plan plan) {
+        long start = millis(plan.startTime());
+        long end = millis(plan.endTime());
+        long finalize = end + ScheduledExamService.SUBMIT_GRACE_SECONDS * 1000L;
+        wheel.schedule(new Step(examId, Phase.WARM, plan), start - warmLeadMs);
+        wheel.schedule(new Step(examId, Phase.START, plan), start);
+        wheel.schedule(new Step(examId, Phase.END, plan), end);
+        wheel.schedule(new Step(examId, Phase.FINALIZE, plan), finalize);
+        wheel.schedule(new Step(examId, Phase.EVICT, plan), finalize + retentionMs);
+    }
+
+    private void run(Step step) {
+        Long examId = step.examId();
+        switch (step.phase()) {
+            case WARM -> scheduledExamRepository.findById(examId)
+                .filter(ScheduledExam::getIsActive)
+                .ifPresent(exam -> {
+                    examAdmission.preload(exam);
+                    examPaperCache.get(examId);
+                    examScoreboard.preload(examId);
+                    log.debug("Warmed exam {} starting at {}", examId, exam.getStartTime());
+                });
+            // Rebuilds only if questions were edited since the warm-up
+            case START -> examPaperCache.get(examId);
+            // Nobody can join an ended exam
+            case END -> examAdmission.evict(examId);
+            case FINALIZE -> scheduledExamService.finalizeExam(examId);
+            case EVICT -> {
+                examPaperCache.evict(examId);
+                examScoreboard.evict(examId);
+                examAdmission.evict(examId);
+                plans.remove(examId, step.plan());
+                log.debug("Evicted state of exam {}", examId);
+            }
+        }
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fiqh.exam.lifecycle.exams", plans, Map::size)
+            .description("Exams with lifecycle steps planned")
+            .register(registry);
+        Map<Phase, Counter> counters = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            counters.put(phase, Counter.builder("fiqh.exam.lifecycle.steps")
+                .tag("phase", phase.name().toLowerCase())
+                .register(registry));
+        }
+        stepsRun = counters;
+    }
+}
@@ -0,0 +1,118 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.cache.LruCache;
+import com.fiqhmaster.dto.QuestionDTO;
+import com.fiqhmaster.repository.ScheduledExamRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exam papers: each exam's questions in the creator's order, rendered once and served to
+ * every participant. A paper is rebuilt only after some question's content has changed.
+ */
+@Component
+@Slf4j
+public class ExamPaperCache implements MeterBinder {
+    private final ScheduledExamRepository scheduledExamRepository;
+    private final QuestionContentCache questionContentCache;
+    private final ContentVersions contentVersions;
+    private final LruCache<Long, ExamPaper> papers;
+    // Builds in progress, one per exam
+    private final Map<Long, CompletableFuture<ExamPaper>> building = new ConcurrentHashMap<>();
+
+    public ExamPaperCache(ScheduledExamRepository scheduledExamRepository,
+                          QuestionContentCache questionContentCache,
+                          ContentVersions contentVersions,
+                          @Value("${fiqh.cache.exam-paper.max-size:1000}") int maxSize) {
+        this.scheduledExamRepository = scheduledExamRepository;
+        this.questionContentCache = questionContentCache;
+        this.contentVersions = contentVersions;
+        this.papers = new LruCache<>(maxSize);
+    }
+
+    public ExamPaper get(Long examId) {
+        long version = contentVersions.current(ContentVersions.Content.QUESTIONS);
+        ExamPaper paper = papers.get(examId);
+        if (paper != null && paper.questionVersion() == version) {
+            return paper;
+        }
+        // A whole class opens the exam at once: build the paper once, not once per student,
+        // without making other exams wait for this one
+        CompletableFuture<ExamPaper> own = new CompletableFuture<>();
+        CompletableFuture<ExamPaper> inFlight = building.putIfAbsent(examId, own);
+        if (inFlight != null) {
+            ExamPaper built = await(inFlight);
+            if (built.questionVersion() >= version) {
+                return built;
+            }
+            // Started before the latest question change; rare enough to build again unshared
+            paper = build(examId, version);
+            papers.put(examId, paper);
+            return paper;
+        }
+        try {
+            paper = papers.get(examId);
+            if (paper == null || paper.questionVersion() != version) {
+                paper = build(examId, version);
+                papers.put(examId, paper);
+            }
+            own.complete(paper);
+            return paper;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            building.remove(examId, own);
+        }
+    }
+
+    private static ExamPaper await(CompletableFuture<ExamPaper> build) {
+        try {
+            return build.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void evict(Long examId) {
+        papers.invalidate(examId);
+    }
+
+    private ExamPaper build(Long examId, long version) {
+        List<Long> questionIds = scheduledExamRepository.findQuestionIdsByExamId(examId);
+        List<QuestionContent> contents = List.copyOf(questionContentCache.getAll(questionIds));
+        if (contents.size() != questionIds.size()) {
+            log.warn("Exam {} references {} questions that no longer exist", examId, questionIds.size() - contents.size());
+        }
+        List<QuestionDTO> questions = contents.stream()
+            .map(content -> content.toDTO(null))
+            .toList();
+        Map<Long, Integer> answerKey = new HashMap<>();
+        contents.forEach(content -> answerKey.put(content.id(), content.correctAnswer()));
+        log.debug("Built paper for exam {} with {} questions", examId, questions.size());
+        return new ExamPaper(examId, version, contents, questions, Map.copyOf(answerKey));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        papers.registerMetrics(registry, "examPaper");
+    }
+
+    /** The rendered questions are shared between requests and must not be modified. */
+    public record ExamPaper(Long examId, long questionVersion, List<QuestionContent> contents,
+                            List<QuestionDTO> questions, Map<Long, Integer> answerKey) {
+    }
+}
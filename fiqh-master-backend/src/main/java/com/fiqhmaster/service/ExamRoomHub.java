@@ -0,0 +1,352 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.entity.ExamParticipant;
+import com.fiqhmaster.entity.ScheduledExam;
+import com.fiqhmaster.exception.ResourceNotFoundException;
+import com.fiqhmaster.exception.UnauthorizedException;
+import com.fiqhmaster.repository.ExamParticipantRepository;
+import com.fiqhmaster.repository.ScheduledExamRepository;
+import com.fiqhmaster.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-sent event rooms for exams. A room is loaded once, when its first client subscribes.
+ * From then on it is kept current by the exam's own writes: joins, starts and hand-ins. Each
+ * event is serialized once and written to every subscriber. Lobby traffic therefore stops
+ * reaching the database, however many clients are waiting. A single scheduled tick sends the
+ * countdown and the start and end signals. Writes run on the task executor, queued per room, so
+ * a slow subscriber holds up only its own room and never the thread that made the change or the
+ * shared scheduler. Rooms nobody listens to are dropped.
+ */
+@Component
+@Slf4j
+public class ExamRoomHub implements MeterBinder {
+    private final ScheduledExamRepository scheduledExamRepository;
+    private final ExamParticipantRepository examParticipantRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final long timeoutMs;
+
+    private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+    private volatile Counter eventsSent;
+
+    public ExamRoomHub(ScheduledExamRepository scheduledExamRepository,
+                       ExamParticipantRepository examParticipantRepository,
+                       UserRepository userRepository,
+                       ObjectMapper objectMapper,
+                       @Qualifier("applicationTaskExecutor") Executor executor,
+                       @Value("${fiqh.exams.room.timeout-ms:1800000}") long timeoutMs) {
+        this.scheduledExamRepository = scheduledExamRepository;
+        this.examParticipantRepository = examParticipantRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public record ParticipantView(long userId, String userName, String status) {}
+
+    public record Snapshot(Long examId, String title, LocalDateTime startTime, LocalDateTime endTime,
+                           Integer totalQuestions, Integer maxParticipants, List<ParticipantView> participants,
+                           LocalDateTime serverTime) {}
+
+    public record Countdown(long secondsToStart, long secondsToEnd, LocalDateTime serverTime) {}
+
+    // Open to the exam's creator and participants; the room's state answers that after the first load
+    public SseEmitter subscribe(Long examId, Long userId) {
+        while (true) {
+            Room room = loaded(examId);
+            SseEmitter emitter = new SseEmitter(timeoutMs);
+            room.lock.lock();
+            try {
+                if (room.closed) {
+                    continue;
+                }
+                if (room.creatorId != userId && !room.participants.containsKey(userId)) {
+                    throw new UnauthorizedException("أنت غير مسجل في هذا الاختبار");
+                }
+                room.subscribers.add(emitter);
+                Snapshot snapshot = room.snapshot();
+                // Queued behind the events already on their way to the other subscribers
+                deliver(room, "snapshot", () -> send(room, List.of(emitter), "snapshot", snapshot));
+            } finally {
+                room.lock.unlock();
+            }
+            emitter.onCompletion(() -> room.subscribers.remove(emitter));
+            emitter.onTimeout(() -> room.subscribers.remove(emitter));
+            emitter.onError(error -> room.subscribers.remove(emitter));
+            return emitter;
+        }
+    }
+
+    // Lets callers skip work for events nobody would receive
+    public boolean isOpen(Long examId) {
+        return rooms.containsKey(examId);
+    }
+
+    // Called after the join commits, so a room loaded later already has it; the name is read only for an open room
+    public void participantJoined(Long examId, long userId) {
+        if (!rooms.containsKey(examId)) {
+            return;
+        }
+        String userName = userRepository.findFullNameById(userId).orElse(null);
+        update(examId, userId, "joined", new ParticipantView(userId, userName, "REGISTERED"));
+    }
+
+    public void participantStarted(Long examId, long userId) {
+        update(examId, userId, "started", null);
+    }
+
+    public void participantCompleted(Long examId, long userId) {
+        update(examId, userId, "completed", null);
+    }
+
+    public void finalized(Long examId) {
+        close(examId, "finalized");
+    }
+
+    public void cancelled(Long examId) {
+        close(examId, "cancelled");
+    }
+
+    @Scheduled(fixedRateString = "${fiqh.exams.room.tick-interval-ms:1000}")
+    public void tick() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Room room : rooms.values()) {
+            if (!room.loaded) {
+                continue;
+            }
+            if (room.subscribers.isEmpty()) {
+                drop(room);
+                continue;
+            }
+            List<SseEmitter> subscribers = List.copyOf(room.subscribers);
+            Map<String, Countdown> events = new LinkedHashMap<>();
+            if (!room.startAnnounced && !now.isBefore(room.startTime)) {
+                room.startAnnounced = true;
+                events.put("exam-started", new Countdown(0, seconds(now, room.endTime), now));
+            }
+            if (!room.endAnnounced && !now.isBefore(room.endTime)) {
+                room.endAnnounced = true;
+                events.put("exam-ended", new Countdown(0, 0, now));
+            }
+            // A countdown still being written makes the next one redundant; announcements always go out
+            if (!room.endAnnounced && (!events.isEmpty() || room.delivery.isDone())) {
+                events.put("countdown", new Countdown(seconds(now, room.startTime), seconds(now, room.endTime), now));
+            }
+            events.forEach((event, countdown) -> deliver(room, event, () -> send(room, subscribers, event, countdown)));
+        }
+    }
+
+    private void update(Long examId, long userId, String event, ParticipantView joined) {
+        Room room = rooms.get(examId);
+        if (room == null) {
+            return;
+        }
+        room.lock.lock();
+        try {
+            if (room.closed) {
+                return;
+            }
+            ParticipantView previous = room.participants.get(userId);
+            ParticipantView view;
+            if (joined != null) {
+                view = joined;
+            } else if (previous != null) {
+                view = new ParticipantView(userId, previous.userName(), event.equals("started") ? "STARTED" : "COMPLETED");
+            } else {
+                return;
+            }
+            room.participants.put(userId, view);
+            List<SseEmitter> subscribers = List.copyOf(room.subscribers);
+            deliver(room, event, () -> send(room, subscribers, event, view));
+        } finally {
+            room.lock.unlock();
+        }
+    }
+
+    private void close(Long examId, String event) {
+        Room room = rooms.remove(examId);
+        if (room == null) {
+            return;
+        }
+        room.lock.lock();
+        try {
+            room.closed = true;
+            List<SseEmitter> subscribers = List.copyOf(room.subscribers);
+            deliver(room, event, () -> {
+                send(room, subscribers, event, Map.of("examId", examId));
+                subscribers.forEach(SseEmitter::complete);
+            });
+        } finally {
+            room.lock.unlock();
+        }
+    }
+
+    private void drop(Room room) {
+        room.lock.lock();
+        try {
+            if (room.subscribers.isEmpty()) {
+                room.closed = true;
+                rooms.remove(room.examId, room);
+            }
+        } finally {
+            room.lock.unlock();
+        }
+    }
+
+    private Room loaded(Long examId) {
+        Room room = rooms.computeIfAbsent(examId, Room::new);
+        if (room.loaded) {
+            return room;
+        }
+        room.lock.lock();
+        try {
+            if (!room.loaded) {
+                ScheduledExam exam = scheduledExamRepository.findById(examId).orElse(null);
+                if (exam == null || !exam.getIsActive()) {
+                    room.closed = true;
+                    rooms.remove(examId, room);
+                    throw new ResourceNotFoundException("الاختبار غير موجود");
+                }
+                room.load(exam, examParticipantRepository.findWithUserByExamId(examId));
+                log.debug("Opened exam room {} with {} participants", examId, room.participants.size());
+            }
+            return room;
+        } finally {
+            room.lock.unlock();
+        }
+    }
+
+    // Chained per room on the task executor, so the room's events keep their order and their sequence IDs
+    private void deliver(Room room, String event, Runnable writes) {
+        room.lock.lock();
+        try {
+            // A failed or rejected write must not hold up the events queued after it
+            room.delivery = room.delivery.thenRunAsync(writes, executor).exceptionally(e -> {
+                log.warn("Exam room {} could not send {}", room.examId, event, e);
+                return null;
+            });
+        } finally {
+            room.lock.unlock();
+        }
+    }
+
+    // Serialized once, written to every subscriber; a subscriber that fails to take it is dropped
+    private void send(Room room, List<SseEmitter> subscribers, String event, Object payload) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String data = objectMapper.writeValueAsString(payload);
+        String id = String.valueOf(room.sequence.incrementAndGet());
+        for (SseEmitter emitter : subscribers) {
+            try {
+                emitter.send(SseEmitter.event().id(id).name(event).data(data, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                room.subscribers.remove(emitter);
+            }
+        }
+        if (eventsSent != null) {
+            eventsSent.increment(subscribers.size());
+        }
+    }
+
+    private static long seconds(LocalDateTime from, LocalDateTime to) {
+        return Math.max(0, Duration.between(from, to).getSeconds());
+    }
+
+    private int subscriberCount() {
+        int count = 0;
+        for (Room room : rooms.values()) {
+            count += room.subscribers.size();
+        }
+        return count;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fiqh.exam.rooms", rooms, Map::size)
+            .description("Exam rooms with live subscribers")
+            .register(registry);
+        Gauge.builder("fiqh.exam.room.subscribers", this, ExamRoomHub::subscriberCount)
+            .register(registry);
+        eventsSent = Counter.builder("fiqh.exam.room.events")
+            .description("Events written to exam room subscribers")
+            .register(registry);
+    }
+
+    private static final class Room {
+        private final Long examId;
+        private final Lock lock = new ReentrantLock();
+        private final Map<Long, ParticipantView> participants = new LinkedHashMap<>();
+        private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+        private final AtomicLong sequence = new AtomicLong();
+        // Replaced under the lock
+        private volatile CompletableFuture<Void> delivery = CompletableFuture.completedFuture(null);
+        private volatile boolean loaded;
+        private volatile boolean closed;
+        private volatile boolean startAnnounced;
+        private volatile boolean endAnnounced;
+        private long creatorId;
+        private String title;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+        private Integer totalQuestions;
+        private Integer maxParticipants;
+
+        private Room(Long examId) {
+            this.examId = examId;
+        }
+
+        // Callers hold the lock. Changes applied while the rows were being read are newer than them
+        private void load(ScheduledExam exam, List<ExamParticipant> rows) {
+            creatorId = exam.getCreator().getId();
+            title = exam.getTitle();
+            startTime = exam.getStartTime();
+            endTime = exam.getEndTime();
+            totalQuestions = exam.getTotalQuestions();
+            maxParticipants = exam.getMaxParticipants();
+            LocalDateTime now = LocalDateTime.now();
+            startAnnounced = !now.isBefore(startTime);
+            endAnnounced = !now.isBefore(endTime);
+            for (ExamParticipant row : rows) {
+                participants.putIfAbsent(row.getUser().getId(),
+                    new ParticipantView(row.getUser().getId(), row.getUser().getFullName(), row.getStatus()));
+            }
+            loaded = true;
+        }
+
+        // Callers hold the lock
+        private Snapshot snapshot() {
+            return new Snapshot(examId, title, startTime, endTime, totalQuestions, maxParticipants,
+                new ArrayList<>(participants.values()), LocalDateTime.now());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.entity.ExamParticipant;
+import com.fiqhmaster.repository.ExamParticipantRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Live ranking of each exam's finished participants: highest score first, then the
+ * shortest time. A board is loaded from exam_participants on first use; after that,
+ * committed submissions are recorded directly. Recording is an upsert, so an entry that
+ * arrives while the board is still loading is never lost or counted twice.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExamScoreboard implements MeterBinder {
+    private static final Comparator<Entry> BY_RESULT = Comparator
+        .comparingInt(Entry::score).reversed()
+        .thenComparingLong(Entry::timeTakenSeconds)
+        .thenComparingLong(Entry::userId);
+
+    private final ExamParticipantRepository examParticipantRepository;
+
+    private final Map<Long, Board> boards = new ConcurrentHashMap<>();
+
+    public record Entry(long userId, String userName, int score, long timeTakenSeconds, LocalDateTime completedAt) {
+
+        public static Entry of(ExamParticipant participant, int score, LocalDateTime completedAt) {
+            LocalDateTime startedAt = participant.getStartedAt() != null ? participant.getStartedAt() : participant.getJoinedAt();
+            long seconds = startedAt != null ? Math.max(0, Duration.between(startedAt, completedAt).getSeconds()) : 0;
+            return new Entry(participant.getUser().getId(), participant.getUser().getFullName(), score, seconds, completedAt);
+        }
+
+        public static Entry of(ExamParticipant participant) {
+            return of(participant, participant.getScore() != null ? participant.getScore() : 0, participant.getCompletedAt());
+        }
+    }
+
+    // rank is 1-based
+    public record Ranked(int rank, Entry entry) {}
+
+    public void record(Long examId, Entry entry) {
+        Board board = boards.computeIfAbsent(examId, id -> new Board());
+        board.lock.lock();
+        try {
+            board.put(entry);
+        } finally {
+            board.lock.unlock();
+        }
+    }
+
+    // Also marks the board changed when there is nothing to add, e.g. once the exam is finalized
+    public void recordAll(Long examId, List<Entry> entries) {
+        Board board = boards.computeIfAbsent(examId, id -> new Board());
+        board.lock.lock();
+        try {
+            entries.forEach(board::put);
+            board.version++;
+        } finally {
+            board.lock.unlock();
+        }
+    }
+
+    public List<Ranked> top(Long examId, int limit) {
+        Board board = loaded(examId);
+        board.lock.lock();
+        try {
+            List<Ranked> result = new ArrayList<>();
+            for (Entry entry : board.ranking.range(0, limit)) {
+                result.add(new Ranked(result.size() + 1, entry));
+            }
+            return result;
+        } finally {
+            board.lock.unlock();
+        }
+    }
+
+    public Optional<Ranked> find(Long examId, Long userId) {
+        Board board = loaded(examId);
+        board.lock.lock();
+        try {
+            Entry entry = board.entries.get(userId);
+            int index = entry != null ? board.ranking.indexOf(entry) : -1;
+            return index < 0 ? Optional.empty() : Optional.of(new Ranked(index + 1, entry));
+        } finally {
+            board.lock.unlock();
+        }
+    }
+
+    public int size(Long examId) {
+        Board board = loaded(examId);
+        board.lock.lock();
+        try {
+            return board.ranking.size();
+        } finally {
+            board.lock.unlock();
+        }
+    }
+
+    // Moves whenever the board changes; part of the results ETag. Computed before access is checked,
+    // so it never loads a board: -1 until one is in memory
+    public long version(Long examId) {
+        Board board = boards.get(examId);
+        return board != null && board.loaded ? board.version : -1;
+    }
+
+    // Loads the board ahead of the first submission
+    public void preload(Long examId) {
+        loaded(examId);
+    }
+
+    public void evict(Long examId) {
+        boards.remove(examId);
+    }
+
+    private Board loaded(Long examId) {
+        Board board = boards.computeIfAbsent(examId, id -> new Board());
+        if (board.loaded) {
+            return board;
+        }
+        board.lock.lock();
+        try {
+            if (!board.loaded) {
+                List<ExamParticipant> finished = examParticipantRepository.findWithUserByExamIdAndStatus(examId, "COMPLETED");
+                // Entries recorded while this query ran are newer than its rows
+                for (ExamParticipant participant : finished) {
+                    if (!board.entries.containsKey(participant.getUser().getId())) {
+                        board.put(Entry.of(participant));
+                    }
+                }
+                board.loaded = true;
+                log.debug("Loaded scoreboard for exam {} with {} results", examId, finished.size());
+            }
+            return board;
+        } finally {
+            board.lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fiqh.exam.scoreboards", boards, Map::size)
+            .description("Exams with a scoreboard held in memory")
+            .register(registry);
+    }
+
+    private static final class Board {
+        private final Lock lock = new ReentrantLock();
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private final RankedSkipList<Entry> ranking = new RankedSkipList<>(BY_RESULT);
+        private volatile boolean loaded;
+        private volatile long version;
+
+        // Callers hold the lock
+        private void put(Entry entry) {
+            Entry previous = entries.put(entry.userId(), entry);
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+            ranking.add(entry);
+            version++;
+        }
+    }
+}
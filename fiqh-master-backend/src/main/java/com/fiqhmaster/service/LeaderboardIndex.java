@@ -0,0 +1,276 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.entity.User;
+import com.fiqhmaster.repository.UserCategoryStatsRepository;
+import com.fiqhmaster.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory ranking of all users by score (correct answers, then quizzes), by
+ * current streak and, per category, by that category's correct answers and quizzes.
+ * Built from the database at startup and kept current from committed changes;
+ * top-N, rank lookups and neighbourhoods are O(log n).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LeaderboardIndex implements MeterBinder {
+    private static final Comparator<Entry> BY_SCORE = Comparator
+        .comparingInt(Entry::totalCorrectAnswers).reversed()
+        .thenComparing(Comparator.comparingInt(Entry::totalQuizzes).reversed())
+        .thenComparingLong(Entry::userId);
+    private static final Comparator<Entry> BY_STREAK = Comparator
+        .comparingInt(Entry::currentStreak).reversed()
+        .thenComparingLong(Entry::userId);
+
+    private static final Comparator<CategoryEntry> BY_CATEGORY_SCORE = Comparator
+        .comparingInt(CategoryEntry::correctAnswers).reversed()
+        .thenComparing(Comparator.comparingInt(CategoryEntry::quizzesTaken).reversed())
+        .thenComparingLong(CategoryEntry::userId);
+
+    private final UserRepository userRepository;
+    private final UserCategoryStatsRepository userCategoryStatsRepository;
+    private final ContentVersions contentVersions;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final RankedSkipList<Entry> byScore = new RankedSkipList<>(BY_SCORE);
+    private final RankedSkipList<Entry> byStreak = new RankedSkipList<>(BY_STREAK);
+    private final Map<Long, CategoryBoard> categories = new HashMap<>();
+    // Mutations from committed transactions, applied under the write lock
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    public enum Board { SCORE, STREAK }
+
+    public record Entry(long userId, String fullName, int totalQuizzes, int totalCorrectAnswers,
+                        int currentStreak, String currentRank) {}
+
+    // rank is 1-based
+    public record Ranked(int rank, Entry entry) {}
+
+    public List<Ranked> top(Board board, int limit) {
+        prepare();
+        lock.readLock().lock();
+        try {
+            return ranked(list(board).range(0, limit), 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Ranked> find(Board board, Long userId) {
+        prepare();
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(userId);
+            int index = entry != null ? list(board).indexOf(entry) : -1;
+            return index < 0 ? Optional.empty() : Optional.of(new Ranked(index + 1, entry));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Entry> entry(Long userId) {
+        prepare();
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(entries.get(userId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The user together with up to radius users ranked directly above and below
+    public List<Ranked> around(Board board, Long userId, int radius) {
+        prepare();
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(userId);
+            int index = entry != null ? list(board).indexOf(entry) : -1;
+            if (index < 0) {
+                return List.of();
+            }
+            int from = Math.max(0, index - radius);
+            return ranked(list(board).range(from, index - from + radius + 1), from);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Category totals replace the user's overall ones in the returned entries
+    public List<Ranked> topInCategory(Long categoryId, int limit) {
+        prepare();
+        lock.readLock().lock();
+        try {
+            CategoryBoard board = categories.get(categoryId);
+            if (board == null) {
+                return List.of();
+            }
+            List<Ranked> result = new ArrayList<>();
+            for (CategoryEntry categoryEntry : board.ranking().range(0, limit)) {
+                Entry user = entries.get(categoryEntry.userId());
+                if (user != null) {
+                    result.add(new Ranked(result.size() + 1, new Entry(user.userId(), user.fullName(),
+                        categoryEntry.quizzesTaken(), categoryEntry.correctAnswers(),
+                        user.currentStreak(), user.currentRank())));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void userSaved(User user) {
+        Entry entry = new Entry(user.getId(), user.getFullName(),
+            valueOf(user.getTotalQuizzes()), valueOf(user.getTotalCorrectAnswers()),
+            valueOf(user.getCurrentStreak()), user.getCurrentRank());
+        enqueue(() -> put(entry));
+    }
+
+    public void userRemoved(Long userId) {
+        enqueue(() -> {
+            Entry previous = entries.remove(userId);
+            if (previous != null) {
+                byScore.remove(previous);
+                byStreak.remove(previous);
+            }
+            categories.values().forEach(board -> board.remove(userId));
+        });
+    }
+
+    // Takes the user's current totals for the category, not a delta, so replays are harmless
+    public void categoryStatsChanged(Long userId, Long categoryId, int quizzesTaken, int correctAnswers) {
+        CategoryEntry entry = new CategoryEntry(userId, quizzesTaken, correctAnswers);
+        enqueue(() -> putCategory(categoryId, entry));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        prepare();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fiqh.leaderboard.users", byScore, RankedSkipList::size)
+            .description("Users held in the in-memory leaderboard")
+            .register(registry);
+    }
+
+    private void enqueue(Runnable change) {
+        AfterCommit.run(() -> {
+            pending.add(change);
+            if (loaded) {
+                applyPending();
+            }
+        });
+    }
+
+    private void prepare() {
+        if (!loaded) {
+            build();
+        }
+        applyPending();
+    }
+
+    private void build() {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            for (Object[] row : userRepository.findLeaderboardRows()) {
+                put(new Entry((Long) row[0], (String) row[1], valueOf((Integer) row[2]),
+                    valueOf((Integer) row[3]), valueOf((Integer) row[4]), (String) row[5]));
+            }
+            for (Object[] row : userCategoryStatsRepository.findLeaderboardRows()) {
+                putCategory((Long) row[1], new CategoryEntry((Long) row[0], valueOf((Integer) row[2]),
+                    valueOf((Integer) row[3])));
+            }
+            loaded = true;
+            contentVersions.changed(ContentVersions.Content.LEADERBOARD);
+            log.info("Leaderboard built: {} users, {} category boards ({} ms)",
+                entries.size(), categories.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Runnable change;
+            while ((change = pending.poll()) != null) {
+                change.run();
+            }
+            contentVersions.changed(ContentVersions.Content.LEADERBOARD);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Entry entry) {
+        Entry previous = entries.put(entry.userId(), entry);
+        if (previous != null) {
+            byScore.remove(previous);
+            byStreak.remove(previous);
+        }
+        byScore.add(entry);
+        // Only users with an active streak appear on the streak board
+        if (entry.currentStreak() > 0) {
+            byStreak.add(entry);
+        }
+    }
+
+    private void putCategory(Long categoryId, CategoryEntry entry) {
+        CategoryBoard board = categories.computeIfAbsent(categoryId,
+            id -> new CategoryBoard(new HashMap<>(), new RankedSkipList<>(BY_CATEGORY_SCORE)));
+        board.remove(entry.userId());
+        board.byUser().put(entry.userId(), entry);
+        board.ranking().add(entry);
+    }
+
+    private RankedSkipList<Entry> list(Board board) {
+        return board == Board.STREAK ? byStreak : byScore;
+    }
+
+    private static List<Ranked> ranked(List<Entry> entries, int offset) {
+        List<Ranked> result = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            result.add(new Ranked(offset + i + 1, entries.get(i)));
+        }
+        return result;
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private record CategoryEntry(long userId, int quizzesTaken, int correctAnswers) {}
+
+    private record CategoryBoard(Map<Long, CategoryEntry> byUser, RankedSkipList<CategoryEntry> ranking) {
+        void remove(Long userId) {
+            CategoryEntry previous = byUser.remove(userId);
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+        }
+    }
+}
@@ -1,47 +1,92 @@
 package com.fiqhmaster.service;
 
 import com.fiqhmaster.dto.LeaderboardEntryDTO;
-import com.fiqhmaster.entity.User;
-import com.fiqhmaster.repository.UserRepository;
+import com.fiqhmaster.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class LeaderboardService {
-    private final UserRepository userRepository;
+    private final LeaderboardIndex leaderboardIndex;
+    private final WindowedLeaderboard windowedLeaderboard;
+    private final ContentVersions contentVersions;
+    
+    // Conditional-GET tags: the boards live in memory, so the index version identifies their content
+    public String etag(String board, Object scope) {
+        return contentVersions.etag("leaderboard", board, scope, contentVersions.current(ContentVersions.Content.LEADERBOARD));
+    }
+    
+    // Window rows carry names and streaks from the index, so both versions go into the tag
+    public String windowEtag(WindowedLeaderboard.Window window, int limit) {
+        long users = contentVersions.current(ContentVersions.Content.LEADERBOARD);
+        return contentVersions.etag("leaderboard", window, limit, windowedLeaderboard.version(window), users);
+    }
     
     public List<LeaderboardEntryDTO> getGlobalLeaderboard(int limit) {
-        List<User> users = userRepository.findTopUsers();
-        return users.stream()
-            .limit(limit)
-            .map(this::toLeaderboardEntry)
-            .collect(Collectors.toList());
+        return toLeaderboardEntries(leaderboardIndex.top(LeaderboardIndex.Board.SCORE, limit));
     }
     
     public List<LeaderboardEntryDTO> getCategoryLeaderboard(Long categoryId, int limit) {
-        return getGlobalLeaderboard(limit);
+        return toLeaderboardEntries(leaderboardIndex.topInCategory(categoryId, limit));
     }
     
     public List<LeaderboardEntryDTO> getStreakLeaderboard(int limit) {
-        List<User> users = userRepository.findUsersByStreak();
-        return users.stream()
-            .limit(limit)
+        return toLeaderboardEntries(leaderboardIndex.top(LeaderboardIndex.Board.STREAK, limit));
+    }
+    
+    // Quiz and correct-answer counts cover only the window
+    public List<LeaderboardEntryDTO> getWindowLeaderboard(WindowedLeaderboard.Window window, int limit) {
+        List<WindowedLeaderboard.Standing> standings = windowedLeaderboard.top(window, limit);
+        List<LeaderboardEntryDTO> result = new ArrayList<>(standings.size());
+        for (WindowedLeaderboard.Standing standing : standings) {
+            LeaderboardIndex.Entry user = leaderboardIndex.entry(standing.userId()).orElse(null);
+            result.add(new LeaderboardEntryDTO(
+                standing.userId(),
+                user != null ? user.fullName() : null,
+                standing.quizzes(),
+                standing.correctAnswers(),
+                user != null ? user.currentStreak() : 0,
+                user != null ? user.currentRank() : null,
+                result.size() + 1
+            ));
+        }
+        return result;
+    }
+    
+    public LeaderboardEntryDTO getUserRank(Long userId) {
+        return leaderboardIndex.find(LeaderboardIndex.Board.SCORE, userId)
+            .map(this::toLeaderboardEntry)
+            .orElseThrow(() -> new ResourceNotFoundException("المستخدم غير موجود"));
+    }
+    
+    public List<LeaderboardEntryDTO> getLeaderboardAroundUser(Long userId, int radius) {
+        List<LeaderboardIndex.Ranked> window = leaderboardIndex.around(LeaderboardIndex.Board.SCORE, userId, radius);
+        if (window.isEmpty()) {
+            throw new ResourceNotFoundException("المستخدم غير موجود");
+        }
+        return toLeaderboardEntries(window);
+    }
+    
+    private List<LeaderboardEntryDTO> toLeaderboardEntries(List<LeaderboardIndex.Ranked> ranked) {
+        return ranked.stream()
             .map(this::toLeaderboardEntry)
             .collect(Collectors.toList());
     }
     
-    private LeaderboardEntryDTO toLeaderboardEntry(User user) {
+    private LeaderboardEntryDTO toLeaderboardEntry(LeaderboardIndex.Ranked ranked) {
+        LeaderboardIndex.Entry entry = ranked.entry();
         return new LeaderboardEntryDTO(
-            user.getId(),
-            user.getFullName(),
-            user.getTotalQuizzes(),
-            user.getTotalCorrectAnswers(),
-            user.getCurrentStreak(),
-            user.getCurrentRank(),
-            0
+            entry.userId(),
+            entry.fullName(),
+            entry.totalQuizzes(),
+            entry.totalCorrectAnswers(),
+            entry.currentStreak(),
+            entry.currentRank(),
+            ranked.rank()
         );
     }
-}
\ No newline at end of file
+}
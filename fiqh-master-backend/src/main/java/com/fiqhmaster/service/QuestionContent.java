@@ -0,0 +1,84 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.dto.QuestionAnswerDTO;
+import com.fiqhmaster.dto.QuestionDTO;
+import com.fiqhmaster.entity.Question;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Immutable, pre-built projection of a question's content, shared by every request that renders it
+public record QuestionContent(
+    Long id,
+    Long categoryId,
+    String categoryName,
+    String questionAr,
+    String questionEn,
+    List<String> optionsAr,
+    List<String> optionsEn,
+    String difficulty,
+    Integer correctAnswer,
+    String explanationAr,
+    String explanationEn,
+    String referenceAr,
+    String referenceEn
+) {
+
+    public static QuestionContent from(Question question) {
+        return new QuestionContent(
+            question.getId(),
+            question.getCategory().getId(),
+            question.getCategory().getNameAr(),
+            question.getQuestionAr(),
+            question.getQuestionEn(),
+            Collections.unmodifiableList(Arrays.asList(
+                question.getOptionAAr(),
+                question.getOptionBAr(),
+                question.getOptionCAr(),
+                question.getOptionDAr()
+            )),
+            Collections.unmodifiableList(Arrays.asList(
+                question.getOptionAEn(),
+                question.getOptionBEn(),
+                question.getOptionCEn(),
+                question.getOptionDEn()
+            )),
+            question.getDifficulty(),
+            question.getCorrectAnswer(),
+            question.getExplanationAr(),
+            question.getExplanationEn(),
+            question.getReferenceAr(),
+            question.getReferenceEn()
+        );
+    }
+
+    public QuestionDTO toDTO(Boolean isBookmarked) {
+        QuestionDTO dto = new QuestionDTO();
+        fill(dto, isBookmarked);
+        return dto;
+    }
+
+    public QuestionAnswerDTO toAnswerDTO(Boolean isBookmarked) {
+        QuestionAnswerDTO dto = new QuestionAnswerDTO();
+        fill(dto, isBookmarked);
+        dto.setCorrectAnswer(correctAnswer);
+        dto.setExplanationAr(explanationAr);
+        dto.setExplanationEn(explanationEn);
+        dto.setReferenceAr(referenceAr);
+        dto.setReferenceEn(referenceEn);
+        return dto;
+    }
+
+    private void fill(QuestionDTO dto, Boolean isBookmarked) {
+        dto.setId(id);
+        dto.setCategoryId(categoryId);
+        dto.setCategoryName(categoryName);
+        dto.setQuestionAr(questionAr);
+        dto.setQuestionEn(questionEn);
+        dto.setDifficulty(difficulty);
+        dto.setOptionsAr(optionsAr);
+        dto.setOptionsEn(optionsEn);
+        dto.setIsBookmarked(isBookmarked);
+    }
+}
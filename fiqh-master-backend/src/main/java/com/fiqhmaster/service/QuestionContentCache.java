@@ -0,0 +1,98 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.cache.LruCache;
+import com.fiqhmaster.repository.QuestionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Read-through cache of question content keyed by question ID
+@Component
+@Slf4j
+public class QuestionContentCache implements MeterBinder {
+    private static final int STRIPES = 64;
+
+    private final QuestionRepository questionRepository;
+    private final LruCache<Long, QuestionContent> cache;
+    // Bumped on every invalidation so content loaded before a change committed is not cached
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+
+    public QuestionContentCache(QuestionRepository questionRepository,
+                                @Value("${fiqh.cache.question-content.max-size:10000}") int maxSize) {
+        this.questionRepository = questionRepository;
+        this.cache = new LruCache<>(maxSize);
+    }
+
+    public Optional<QuestionContent> get(Long id) {
+        List<QuestionContent> found = getAll(List.of(id));
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    // Returns the content in the order of the given IDs; unknown IDs are skipped
+    public List<QuestionContent> getAll(Collection<Long> ids) {
+        Map<Long, QuestionContent> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            QuestionContent content = cache.get(id);
+            if (content != null) {
+                found.put(id, content);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long[] loadStamps = new long[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                loadStamps[i] = stamps.get(i);
+            }
+            List<QuestionContent> loaded = questionRepository.findWithCategoryByIdIn(missing).stream()
+                .map(QuestionContent::from)
+                .toList();
+            synchronized (this) {
+                for (QuestionContent content : loaded) {
+                    if (stamps.get(stripe(content.id())) == loadStamps[stripe(content.id())]) {
+                        cache.put(content.id(), content);
+                    }
+                }
+            }
+            loaded.forEach(content -> found.put(content.id(), content));
+            log.debug("Question content cache loaded {} of {} requested questions", loaded.size(), ids.size());
+        }
+
+        List<QuestionContent> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            QuestionContent content = found.get(id);
+            if (content != null) {
+                result.add(content);
+            }
+        }
+        return result;
+    }
+
+    public synchronized void invalidate(Long id) {
+        stamps.incrementAndGet(stripe(id));
+        cache.invalidate(id);
+    }
+
+    public synchronized void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            stamps.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    private static int stripe(Long id) {
+        return (int) (id & (STRIPES - 1));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cache.registerMetrics(registry, "questionContent");
+    }
+}
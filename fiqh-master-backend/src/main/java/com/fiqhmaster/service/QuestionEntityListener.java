@@ -0,0 +1,43 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.entity.Question;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Created by Hibernate through Spring's bean container, so the collaborators are looked up lazily
+public class QuestionEntityListener {
+    private final ObjectProvider<QuestionIndex> questionIndex;
+    private final ObjectProvider<QuestionContentCache> questionContentCache;
+    private final ObjectProvider<ContentVersions> contentVersions;
+
+    public QuestionEntityListener(ObjectProvider<QuestionIndex> questionIndex,
+                                  ObjectProvider<QuestionContentCache> questionContentCache,
+                                  ObjectProvider<ContentVersions> contentVersions) {
+        this.questionIndex = questionIndex;
+        this.questionContentCache = questionContentCache;
+        this.contentVersions = contentVersions;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Question question) {
+        questionIndex.ifAvailable(index -> index.questionSaved(question));
+        invalidateContent(question.getId());
+    }
+
+    @PostRemove
+    public void onRemove(Question question) {
+        questionIndex.ifAvailable(index -> index.questionRemoved(question.getId()));
+        invalidateContent(question.getId());
+    }
+
+    // The version moves only after the cached copy is gone, so a new tag never labels old content
+    private void invalidateContent(Long questionId) {
+        AfterCommit.run(() -> {
+            questionContentCache.ifAvailable(cache -> cache.invalidate(questionId));
+            contentVersions.ifAvailable(versions -> versions.changed(ContentVersions.Content.QUESTIONS, questionId));
+        });
+    }
+}
@@ -0,0 +1,221 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.entity.Question;
+import com.fiqhmaster.repository.QuestionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory pools of question IDs keyed by category, difficulty and marja, used to
+ * pick random questions without asking the database to sort the whole table.
+ * Every question sits in one pool per combination of its keys (null = any).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QuestionIndex {
+    private static final long[] EMPTY = new long[0];
+
+    private final QuestionRepository questionRepository;
+
+    private final Map<PoolKey, long[]> pools = new ConcurrentHashMap<>();
+    private final Map<Long, PoolKey> keysById = new HashMap<>();
+    private final Queue<Change> pending = new ConcurrentLinkedQueue<>();
+    private final Lock lock = new ReentrantLock();
+    private volatile boolean loaded;
+    private volatile long version;
+
+    public long[] sample(Long categoryId, String difficulty, Long marjaId, int limit) {
+        long[] pool = pool(categoryId, difficulty, marjaId);
+        int n = pool.length;
+        int k = Math.max(0, Math.min(limit, n));
+        long[] picked = new long[k];
+
+        // Sparse Fisher-Yates: only the swapped slots are remembered, so the cost is O(limit)
+        Map<Integer, Integer> swapped = new HashMap<>(k * 2);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(n - i);
+            int atJ = swapped.getOrDefault(j, j);
+            int atI = swapped.getOrDefault(i, i);
+            swapped.put(j, atI);
+            picked[i] = pool[atJ];
+        }
+        return picked;
+    }
+
+    public int count(Long categoryId, String difficulty, Long marjaId) {
+        return pool(categoryId, difficulty, marjaId).length;
+    }
+
+    // Pool sizes within a category (null = all categories), keyed by difficulty
+    public Map<String, Integer> countsByDifficulty(Long categoryId) {
+        ensureLoaded();
+        applyPending();
+        Map<String, Integer> counts = new TreeMap<>();
+        pools.forEach((key, ids) -> {
+            if (Objects.equals(key.categoryId(), categoryId) && key.difficulty() != null && key.marjaId() == null) {
+                counts.put(key.difficulty(), ids.length);
+            }
+        });
+        return counts;
+    }
+
+    // Pool sizes within a category (null = all categories), keyed by marja
+    public Map<Long, Integer> countsByMarja(Long categoryId) {
+        ensureLoaded();
+        applyPending();
+        Map<Long, Integer> counts = new TreeMap<>();
+        pools.forEach((key, ids) -> {
+            if (Objects.equals(key.categoryId(), categoryId) && key.difficulty() == null && key.marjaId() != null) {
+                counts.put(key.marjaId(), ids.length);
+            }
+        });
+        return counts;
+    }
+
+    public long version() {
+        ensureLoaded();
+        applyPending();
+        return version;
+    }
+
+    public void questionSaved(Question question) {
+        Long categoryId = question.getCategory() != null ? question.getCategory().getId() : null;
+        Long marjaId = question.getMarja() != null ? question.getMarja().getId() : null;
+        enqueue(new Change(question.getId(), new PoolKey(categoryId, question.getDifficulty(), marjaId)));
+    }
+
+    public void questionRemoved(Long questionId) {
+        enqueue(new Change(questionId, null));
+    }
+
+    private long[] pool(Long categoryId, String difficulty, Long marjaId) {
+        ensureLoaded();
+        applyPending();
+        return pools.getOrDefault(new PoolKey(categoryId, difficulty, marjaId), EMPTY);
+    }
+
+    // Changes only become visible once the writing transaction has committed
+    private void enqueue(Change change) {
+        AfterCommit.run(() -> pending.add(change));
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            Map<PoolKey, List<Long>> grouped = new HashMap<>();
+            for (Object[] row : questionRepository.findIndexKeys()) {
+                Long id = (Long) row[0];
+                PoolKey key = new PoolKey((Long) row[1], (String) row[2], (Long) row[3]);
+                keysById.put(id, key);
+                for (PoolKey poolKey : key.expand()) {
+                    grouped.computeIfAbsent(poolKey, k -> new ArrayList<>()).add(id);
+                }
+            }
+            grouped.forEach((key, ids) -> pools.put(key, ids.stream().mapToLong(Long::longValue).toArray()));
+            version++;
+            loaded = true;
+            log.info("Question index built: {} questions in {} pools ({} ms)",
+                keysById.size(), pools.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Folds all queued changes into the pools, rewriting each affected pool once
+    private void applyPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            Map<PoolKey, Set<Long>> removals = new HashMap<>();
+            Map<PoolKey, Set<Long>> additions = new HashMap<>();
+            Change change;
+            while ((change = pending.poll()) != null) {
+                PoolKey previous = keysById.get(change.questionId());
+                if (Objects.equals(previous, change.key())) {
+                    continue;
+                }
+                if (previous != null) {
+                    for (PoolKey poolKey : previous.expand()) {
+                        removals.computeIfAbsent(poolKey, k -> new HashSet<>()).add(change.questionId());
+                        Set<Long> added = additions.get(poolKey);
+                        if (added != null) {
+                            added.remove(change.questionId());
+                        }
+                    }
+                    keysById.remove(change.questionId());
+                }
+                if (change.key() != null) {
+                    for (PoolKey poolKey : change.key().expand()) {
+                        additions.computeIfAbsent(poolKey, k -> new HashSet<>()).add(change.questionId());
+                    }
+                    keysById.put(change.questionId(), change.key());
+                }
+            }
+
+            Set<PoolKey> affected = new HashSet<>(removals.keySet());
+            affected.addAll(additions.keySet());
+            if (affected.isEmpty()) {
+                return;
+            }
+            for (PoolKey poolKey : affected) {
+                long[] current = pools.getOrDefault(poolKey, EMPTY);
+                Set<Long> removed = removals.getOrDefault(poolKey, Set.of());
+                Set<Long> added = additions.getOrDefault(poolKey, Set.of());
+                long[] rebuilt = new long[current.length + added.size()];
+                int size = 0;
+                for (long id : current) {
+                    if (!removed.contains(id) && !added.contains(id)) {
+                        rebuilt[size++] = id;
+                    }
+                }
+                for (Long id : added) {
+                    rebuilt[size++] = id;
+                }
+                if (size == 0) {
+                    pools.remove(poolKey);
+                } else {
+                    pools.put(poolKey, size == rebuilt.length ? rebuilt : Arrays.copyOf(rebuilt, size));
+                }
+            }
+            version++;
+            log.debug("Question index updated: {} pools rewritten", affected.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Change(Long questionId, PoolKey key) {}
+
+    private record PoolKey(Long categoryId, String difficulty, Long marjaId) {
+        Set<PoolKey> expand() {
+            Set<PoolKey> keys = new LinkedHashSet<>(8);
+            for (int mask = 0; mask < 8; mask++) {
+                keys.add(new PoolKey(
+                    (mask & 1) != 0 ? categoryId : null,
+                    (mask & 2) != 0 ? difficulty : null,
+                    (mask & 4) != 0 ? marjaId : null
+                ));
+            }
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.fiqhmaster.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for questions.times_answered / times_correct. Answers only bump
+ * in-memory counters; a scheduled flush adds the accumulated deltas to the rows in one
+ * JDBC batch, so concurrent answers never lock the question row inside the user's transaction.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QuestionStatsBuffer implements MeterBinder {
+    private static final String FLUSH_SQL =
+        "UPDATE questions SET times_answered = times_answered + ?, times_correct = times_correct + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+    private final LongAdder pendingAnswers = new LongAdder();
+    // Time of the oldest answer not yet flushed, 0 when nothing is pending
+    private final AtomicLong oldestPendingAt = new AtomicLong();
+    private final Lock flushLock = new ReentrantLock();
+    private volatile Timer flushTimer;
+    private volatile Counter flushFailures;
+
+    public void record(Long questionId, boolean isCorrect) {
+        Counters questionCounters = counters.computeIfAbsent(questionId, id -> new Counters());
+        questionCounters.answered.incrementAndGet();
+        if (isCorrect) {
+            questionCounters.correct.incrementAndGet();
+        }
+        pendingAnswers.increment();
+        oldestPendingAt.compareAndSet(0, System.currentTimeMillis());
+    }
+
+    // A lock rather than a monitor: the flush does JDBC I/O and must not pin a virtual thread
+    @Scheduled(fixedDelayString = "${fiqh.stats.flush-interval-ms:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            writeDeltas();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeDeltas() {
+        long pendingSince = oldestPendingAt.getAndSet(0);
+        List<Object[]> batch = new ArrayList<>();
+        long answered = 0;
+        for (Map.Entry<Long, Counters> entry : counters.entrySet()) {
+            // getAndSet rather than LongAdder.sumThenReset, which drops increments racing with the reset
+            long answeredDelta = entry.getValue().answered.getAndSet(0);
+            long correctDelta = entry.getValue().correct.getAndSet(0);
+            if (answeredDelta != 0 || correctDelta != 0) {
+                batch.add(new Object[]{answeredDelta, correctDelta, entry.getKey()});
+                answered += answeredDelta;
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            pendingAnswers.add(-answered);
+            log.debug("Flushed answer stats for {} questions ({} answers)", batch.size(), answered);
+        } catch (DataAccessException e) {
+            // Put the deltas back so the next flush retries them
+            for (Object[] row : batch) {
+                Counters questionCounters = counters.computeIfAbsent((Long) row[2], id -> new Counters());
+                questionCounters.answered.addAndGet((Long) row[0]);
+                questionCounters.correct.addAndGet((Long) row[1]);
+            }
+            oldestPendingAt.compareAndSet(0, pendingSince);
+            if (flushFailures != null) {
+                flushFailures.increment();
+            }
+            log.warn("Failed to flush answer stats for {} questions, will retry", batch.size(), e);
+        } finally {
+            if (flushTimer != null) {
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing {} buffered answer stats before shutdown", pendingAnswers.sum());
+        flush();
+    }
+
+    private double flushLagSeconds() {
+        long since = oldestPendingAt.get();
+        return since == 0 ? 0.0 : (System.currentTimeMillis() - since) / 1000.0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fiqh.question.stats.pending", pendingAnswers, LongAdder::sum)
+            .description("Answers counted in memory but not yet written to questions")
+            .register(registry);
+        Gauge.builder("fiqh.question.stats.flush.lag", this, QuestionStatsBuffer::flushLagSeconds)
+            .description("Age of the oldest unflushed answer")
+            .baseUnit("seconds")
+            .register(registry);
+        flushTimer = Timer.builder("fiqh.question.stats.flush")
+            .description("Time spent writing buffered answer stats")
+            .register(registry);
+        flushFailures = Counter.builder("fiqh.question.stats.flush.failures")
+            .register(registry);
+    }
+
+    private static final class Counters {
+        private final AtomicLong answered = new AtomicLong();
+        private final AtomicLong correct = new AtomicLong();
+    }
+}
@@ -0,0 +1,57 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.cache.LruCache;
+import com.fiqhmaster.exception.ResourceNotFoundException;
+import com.fiqhmaster.exception.UnauthorizedException;
+import com.fiqhmaster.repository.QuizAttemptRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Owner and completion state of recent quiz attempts, so answer submission needs no attempt lookup
+@Component
+public class QuizAttemptRegistry implements MeterBinder {
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final LruCache<Long, AttemptState> attempts;
+
+    public QuizAttemptRegistry(QuizAttemptRepository quizAttemptRepository,
+                               @Value("${fiqh.cache.quiz-attempts.max-size:100000}") int maxSize) {
+        this.quizAttemptRepository = quizAttemptRepository;
+        this.attempts = new LruCache<>(maxSize);
+    }
+
+    public void started(Long attemptId, Long userId) {
+        AfterCommit.run(() -> attempts.put(attemptId, new AttemptState(userId, false)));
+    }
+
+    public void completed(Long attemptId, Long userId) {
+        AfterCommit.run(() -> attempts.put(attemptId, new AttemptState(userId, true)));
+    }
+
+    // Throws the same errors the entity-based checks did: missing, foreign or already completed
+    public void checkOpen(Long attemptId, Long userId) {
+        AttemptState state = attempts.get(attemptId);
+        if (state == null) {
+            state = quizAttemptRepository.findOwnershipById(attemptId)
+                .map(found -> new AttemptState(found.getUserId(), Boolean.TRUE.equals(found.getCompleted())))
+                .orElseThrow(() -> new ResourceNotFoundException("محاولة الاختبار غير موجودة"));
+            attempts.put(attemptId, state);
+        }
+
+        if (!state.userId().equals(userId)) {
+            throw new UnauthorizedException("غير مصرح لك بالوصول لهذا الاختبار");
+        }
+
+        if (state.completed()) {
+            throw new IllegalArgumentException("الاختبار مكتمل بالفعل");
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        attempts.registerMetrics(registry, "quizAttempts");
+    }
+
+    private record AttemptState(Long userId, boolean completed) {}
+}
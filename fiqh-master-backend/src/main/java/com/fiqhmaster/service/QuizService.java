@@ -10,7 +10,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +25,10 @@ public class QuizService {
     private final QuestionRepository questionRepository;
     private final UserService userService;
     private final QuestionService questionService;
+    private final QuestionContentCache questionContentCache;
+    private final QuizAttemptRegistry quizAttemptRegistry;
+    private final StatsService statsService;
+    private final WindowedLeaderboard windowedLeaderboard;
     
     @Transactional
     public QuizAttempt startQuiz(Long userId, QuizStartRequest request) {
@@ -47,46 +52,98 @@ public class QuizService {
         }
         
         QuizAttempt savedAttempt = quizAttemptRepository.save(attempt);
+        quizAttemptRegistry.started(savedAttempt.getId(), userId);
         log.info("Quiz started with ID: {}", savedAttempt.getId());
         return savedAttempt;
     }
     
+    // Ownership and correctness come from memory; only the answer insert and,
+    // for a correct answer, an atomic counter increment reach the database
     @Transactional
     public void submitAnswer(Long userId, AnswerRequest request) {
         log.debug("Submitting answer for user {}: question={}, answer={}", 
             userId, request.getQuestionId(), request.getSelectedAnswer());
         
-        QuizAttempt attempt = quizAttemptRepository.findById(request.getQuizAttemptId())
-            .orElseThrow(() -> new ResourceNotFoundException("محاولة الاختبار غير موجودة"));
-        
-        if (!attempt.getUser().getId().equals(userId)) {
-            throw new UnauthorizedException("غير مصرح لك بالوصول لهذا الاختبار");
-        }
+        quizAttemptRegistry.checkOpen(request.getQuizAttemptId(), userId);
         
-        if (attempt.getCompleted()) {
-            throw new IllegalArgumentException("الاختبار مكتمل بالفعل");
-        }
-        
-        Question question = questionRepository.findById(request.getQuestionId())
+        QuestionContent question = questionContentCache.get(request.getQuestionId())
             .orElseThrow(() -> new ResourceNotFoundException("السؤال غير موجود"));
         
-        boolean isCorrect = question.getCorrectAnswer().equals(request.getSelectedAnswer());
+        boolean isCorrect = question.correctAnswer().equals(request.getSelectedAnswer());
         
         UserAnswer answer = new UserAnswer();
-        answer.setQuizAttempt(attempt);
-        answer.setQuestion(question);
+        answer.setQuizAttempt(quizAttemptRepository.getReferenceById(request.getQuizAttemptId()));
+        answer.setQuestion(questionRepository.getReferenceById(question.id()));
         answer.setSelectedAnswer(request.getSelectedAnswer());
         answer.setIsCorrect(isCorrect);
         answer.setTimeTakenSeconds(request.getTimeTakenSeconds());
         
         userAnswerRepository.save(answer);
         
-        if (isCorrect) {
-            attempt.setCorrectAnswers(attempt.getCorrectAnswers() + 1);
-            quizAttemptRepository.save(attempt);
+        if (isCorrect && quizAttemptRepository.addCorrectAnswers(request.getQuizAttemptId(), 1) == 0) {
+            throw new IllegalArgumentException("الاختبار مكتمل بالفعل");
         }
         
-        questionService.incrementStats(question.getId(), isCorrect);
+        questionService.incrementStats(question.id(), isCorrect);
+    }
+    
+    // Whole-quiz submission: validated in one pass, inserted as JDBC batches
+    // and counted with one increment, optionally completing the attempt in the same transaction
+    @Transactional
+    public BatchAnswerResultDTO submitAnswers(Long userId, Long quizAttemptId, BatchAnswerRequest request) {
+        List<BatchAnswerRequest.Answer> answers = request.getAnswers();
+        log.debug("Submitting {} answers for user {}: attempt={}", answers.size(), userId, quizAttemptId);
+        
+        quizAttemptRegistry.checkOpen(quizAttemptId, userId);
+        
+        Set<Long> questionIds = new LinkedHashSet<>();
+        for (BatchAnswerRequest.Answer answer : answers) {
+            if (!questionIds.add(answer.getQuestionId())) {
+                throw new IllegalArgumentException("لا يمكن إرسال أكثر من إجابة لنفس السؤال");
+            }
+        }
+        
+        Map<Long, QuestionContent> questions = questionContentCache.getAll(questionIds).stream()
+            .collect(Collectors.toMap(QuestionContent::id, Function.identity()));
+        if (questions.size() != questionIds.size()) {
+            throw new ResourceNotFoundException("السؤال غير موجود");
+        }
+        
+        QuizAttempt attempt = quizAttemptRepository.getReferenceById(quizAttemptId);
+        List<UserAnswer> rows = new ArrayList<>(answers.size());
+        int correct = 0;
+        for (BatchAnswerRequest.Answer answer : answers) {
+            boolean isCorrect = questions.get(answer.getQuestionId()).correctAnswer().equals(answer.getSelectedAnswer());
+            if (isCorrect) {
+                correct++;
+            }
+            UserAnswer row = new UserAnswer();
+            row.setQuizAttempt(attempt);
+            row.setQuestion(questionRepository.getReferenceById(answer.getQuestionId()));
+            row.setSelectedAnswer(answer.getSelectedAnswer());
+            row.setIsCorrect(isCorrect);
+            row.setTimeTakenSeconds(answer.getTimeTakenSeconds());
+            rows.add(row);
+        }
+        
+        userAnswerRepository.saveAll(rows);
+        
+        if (correct > 0 && quizAttemptRepository.addCorrectAnswers(quizAttemptId, correct) == 0) {
+            throw new IllegalArgumentException("الاختبار مكتمل بالفعل");
+        }
+        
+        for (UserAnswer row : rows) {
+            questionService.incrementStats(row.getQuestion().getId(), row.getIsCorrect());
+        }
+        
+        BatchAnswerResultDTO dto = new BatchAnswerResultDTO();
+        dto.setQuizAttemptId(quizAttemptId);
+        dto.setSubmitted(answers.size());
+        dto.setCorrect(correct);
+        if (Boolean.TRUE.equals(request.getComplete())) {
+            dto.setResult(completeQuiz(userId, quizAttemptId, request.getTimeTaken()));
+        }
+        return dto;
     }
     
     @Transactional
@@ -115,6 +172,10 @@ public class QuizService {
         }
         
         quizAttemptRepository.save(attempt);
+        quizAttemptRegistry.completed(quizAttemptId, userId);
+        statsService.recordCompletedQuiz(attempt);
+        windowedLeaderboard.quizCompleted(quizAttemptId, userId, attempt.getCorrectAnswers(), attempt.getTotalQuestions(),
+            attempt.getCompletedAt());
         
         userService.updateUserStats(userId, attempt.getCorrectAnswers(), attempt.getTotalQuestions());
         userService.updateStreak(userId);
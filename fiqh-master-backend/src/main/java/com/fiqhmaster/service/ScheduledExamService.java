@@ -1,28 +1,65 @@
 package com.fiqhmaster.service;
 
+import com.fiqhmaster.cache.LruCache;
 import com.fiqhmaster.dto.*;
 import com.fiqhmaster.entity.*;
 import com.fiqhmaster.exception.ResourceNotFoundException;
+import com.fiqhmaster.exception.UnauthorizedException;
 import com.fiqhmaster.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import java.util.Arrays;
-
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ScheduledExamService {
+    private static final int TIMING_CACHE_SIZE = 10_000;
+    // Answers sent in the last seconds of an exam may arrive a little late
+    static final int SUBMIT_GRACE_SECONDS = 30;
     
     private final ScheduledExamRepository scheduledExamRepository;
     private final ExamParticipantRepository examParticipantRepository;
     private final UserRepository userRepository;
+    private final ExamPaperCache examPaperCache;
+    private final ContentVersions contentVersions;
+    private final ExamAdmission examAdmission;
+    private final ExamAnswerRepository examAnswerRepository;
     private final QuestionRepository questionRepository;
+    private final QuestionService questionService;
+    private final ExamScoreboard examScoreboard;
+    private final ExamRoomHub examRoomHub;
+    
+    private final LruCache<String, ExamTiming> examTimings = new LruCache<>(TIMING_CACHE_SIZE);
+    
+    // Start time and duration never change once created, so the tag can follow the exam's phase without a query
+    public String examCodeEtag(String examCode, Long userId) {
+        long version = contentVersions.current(ContentVersions.Content.EXAMS, examCode);
+        ExamTiming timing = examTimings.get(examCode);
+        if (timing == null) {
+            ScheduledExam exam = scheduledExamRepository.findByExamCode(examCode)
+                .orElseThrow(() -> new ResourceNotFoundException("كود الاختبار غير صحيح"));
+            timing = new ExamTiming(exam.getStartTime(), exam.getStartTime().plusMinutes(exam.getDurationMinutes()));
+            examTimings.put(examCode, timing);
+        }
+        return contentVersions.etag("exam", examCode, version, timing.phase(LocalDateTime.now()), userId);
+    }
+    
+    public String examResultsEtag(Long examId, Long userId) {
+        long version = contentVersions.current(ContentVersions.Content.EXAMS);
+        return contentVersions.etag("exam-results", examId, version, examScoreboard.version(examId), userId);
+    }
     
     @Transactional
     public ScheduledExamDTO createScheduledExam(Long creatorId, CreateScheduledExamRequest request) {
@@ -37,19 +74,13 @@ public class ScheduledExamService {
         exam.setDurationMinutes(request.getDurationMinutes());
         exam.setMaxParticipants(request.getMaxParticipants());
         
-        // Store question IDs
         if (request.getQuestionIds() != null && !request.getQuestionIds().isEmpty()) {
-            exam.setQuestionIds(request.getQuestionIds().stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(",")));
+            exam.setQuestionIds(new ArrayList<>(request.getQuestionIds()));
             exam.setTotalQuestions(request.getQuestionIds().size());
         }
         
-        // Store category IDs
         if (request.getCategoryIds() != null && !request.getCategoryIds().isEmpty()) {
-            exam.setCategoryIds(request.getCategoryIds().stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(",")));
+            exam.setCategoryIds(new LinkedHashSet<>(request.getCategoryIds()));
         }
         
         ScheduledExam saved = scheduledExamRepository.save(exam);
@@ -66,11 +97,9 @@ public class ScheduledExamService {
         return toDTO(exam, userId);
     }
     
+    // Returns the exam ID; details are read afterwards so the exam row is locked only for the seat update
     @Transactional
-    public ExamDetailsDTO joinExam(Long userId, String examCode) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("المستخدم غير موجود"));
-        
+    public Long joinExam(Long userId, String examCode) {
         ScheduledExam exam = scheduledExamRepository.findByExamCode(examCode)
             .orElseThrow(() -> new ResourceNotFoundException("كود الاختبار غير صحيح"));
         
@@ -82,45 +111,48 @@ public class ScheduledExamService {
             throw new IllegalArgumentException("انتهى وقت الاختبار");
         }
         
-        if (exam.getMaxParticipants() != null && 
-            exam.getCurrentParticipants() >= exam.getMaxParticipants()) {
-            throw new IllegalArgumentException("الاختبار ممتلئ");
-        }
-        
-        // Check if already registered
-        if (examParticipantRepository.existsByExamIdAndUserId(exam.getId(), userId)) {
-            throw new IllegalArgumentException("أنت مسجل بالفعل في هذا الاختبار");
-        }
+        // Full exams and repeated joins are turned away here, before any write
+        examAdmission.admit(exam, userId);
         
-        // Register participant
         ExamParticipant participant = new ExamParticipant();
         participant.setExam(exam);
-        participant.setUser(user);
+        participant.setUser(userRepository.getReferenceById(userId));
         participant.setStatus("REGISTERED");
         examParticipantRepository.save(participant);
         
-        // Update participant count
-        exam.setCurrentParticipants(exam.getCurrentParticipants() + 1);
-        scheduledExamRepository.save(exam);
+        // Last statement of the transaction: the exam row stays locked only until commit
+        int seated;
+        try {
+            seated = scheduledExamRepository.takeSeat(exam.getId());
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("أنت مسجل بالفعل في هذا الاختبار");
+        }
+        if (seated == 0) {
+            throw new IllegalArgumentException("الاختبار ممتلئ");
+        }
+        examChanged(examCode);
+        AfterCommit.run(() -> examRoomHub.participantJoined(exam.getId(), userId));
         
         log.info("User {} joined exam {}", userId, examCode);
         
-        return getExamDetails(exam.getId(), userId);
+        return exam.getId();
     }
     
+    // The exam with its creator, then the participants with their users: the count does not grow with participants
     @Transactional(readOnly = true)
     public ExamDetailsDTO getExamDetails(Long examId, Long userId) {
-        ScheduledExam exam = scheduledExamRepository.findById(examId)
+        ScheduledExam exam = scheduledExamRepository.findWithCreatorById(examId)
             .orElseThrow(() -> new ResourceNotFoundException("الاختبار غير موجود"));
         
-        List<ExamParticipant> participants = examParticipantRepository.findByExamId(examId);
+        List<ExamParticipant> participants = examParticipantRepository.findWithUserByExamId(examId);
         
-        ExamParticipant userParticipant = examParticipantRepository
-            .findByExamIdAndUserId(examId, userId)
+        ExamParticipant userParticipant = participants.stream()
+            .filter(p -> p.getUser().getId().equals(userId))
+            .findFirst()
             .orElse(null);
         
         ExamDetailsDTO details = new ExamDetailsDTO();
-        details.setExam(toDTO(exam, userId));
+        details.setExam(toDTO(exam, userParticipant != null));
         details.setParticipants(participants.stream()
             .map(this::toParticipantDTO)
             .collect(Collectors.toList()));
@@ -153,16 +185,180 @@ public class ScheduledExamService {
         participant.setStatus("STARTED");
         participant.setStartedAt(LocalDateTime.now());
         examParticipantRepository.save(participant);
+        AfterCommit.run(() -> examRoomHub.participantStarted(examId, userId));
         
         log.info("User {} started exam {}", userId, examId);
     }
     
+    // Answers may arrive in several batches and each question is accepted once (exam_answers unique key).
+    // Scoring uses the paper's answer key; the score moves with one atomic increment per batch
+    @Transactional
+    public ExamSubmissionResultDTO submitAnswers(Long userId, Long examId, BatchAnswerRequest request) {
+        ExamParticipant participant = submitting(examId, userId);
+        
+        Map<Long, Integer> answerKey = examPaperCache.get(examId).answerKey();
+        Set<Long> questionIds = new HashSet<>();
+        List<ExamAnswer> rows = new ArrayList<>(request.getAnswers().size());
+        int correct = 0;
+        for (BatchAnswerRequest.Answer answer : request.getAnswers()) {
+            Integer correctAnswer = answerKey.get(answer.getQuestionId());
+            if (correctAnswer == null) {
+                throw new IllegalArgumentException("السؤال ليس من أسئلة هذا الاختبار");
+            }
+            if (!questionIds.add(answer.getQuestionId())) {
+                throw new IllegalArgumentException("لا يمكن إرسال أكثر من إجابة لنفس السؤال");
+            }
+            boolean isCorrect = correctAnswer.equals(answer.getSelectedAnswer());
+            if (isCorrect) {
+                correct++;
+            }
+            ExamAnswer row = new ExamAnswer();
+            row.setParticipant(participant);
+            row.setQuestion(questionRepository.getReferenceById(answer.getQuestionId()));
+            row.setSelectedAnswer(answer.getSelectedAnswer());
+            row.setIsCorrect(isCorrect);
+            row.setTimeTakenSeconds(answer.getTimeTakenSeconds());
+            rows.add(row);
+        }
+        
+        try {
+            examAnswerRepository.saveAllAndFlush(rows);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("تمت الإجابة على هذا السؤال مسبقاً");
+        }
+        if (correct > 0 && examParticipantRepository.addScore(participant.getId(), correct) == 0) {
+            throw new IllegalArgumentException("لقد سلمت هذا الاختبار بالفعل");
+        }
+        for (ExamAnswer row : rows) {
+            questionService.incrementStats(row.getQuestion().getId(), row.getIsCorrect());
+        }
+        
+        ExamSubmissionResultDTO dto = new ExamSubmissionResultDTO();
+        dto.setExamId(examId);
+        dto.setSubmitted(rows.size());
+        dto.setCorrect(correct);
+        dto.setCompleted(false);
+        if (Boolean.TRUE.equals(request.getComplete())) {
+            handIn(participant, dto);
+        }
+        return dto;
+    }
+    
+    // Hand-in without answers, for a participant who sent them all in earlier batches
+    @Transactional
+    public ExamSubmissionResultDTO completeExam(Long userId, Long examId) {
+        ExamParticipant participant = submitting(examId, userId);
+        ExamSubmissionResultDTO dto = new ExamSubmissionResultDTO();
+        dto.setExamId(examId);
+        dto.setSubmitted(0);
+        dto.setCorrect(0);
+        handIn(participant, dto);
+        return dto;
+    }
+    
+    private ExamParticipant submitting(Long examId, Long userId) {
+        ExamParticipant participant = examParticipantRepository.findWithExamAndUser(examId, userId)
+            .orElseThrow(() -> new ResourceNotFoundException("أنت غير مسجل في هذا الاختبار"));
+        
+        if ("COMPLETED".equals(participant.getStatus())) {
+            throw new IllegalArgumentException("لقد سلمت هذا الاختبار بالفعل");
+        }
+        if (!"STARTED".equals(participant.getStatus())) {
+            throw new IllegalArgumentException("لم تبدأ هذا الاختبار بعد");
+        }
+        if (LocalDateTime.now().isAfter(participant.getExam().getEndTime().plusSeconds(SUBMIT_GRACE_SECONDS))) {
+            throw new IllegalArgumentException("انتهى وقت الاختبار");
+        }
+        return participant;
+    }
+    
+    private void handIn(ExamParticipant participant, ExamSubmissionResultDTO dto) {
+        Long examId = participant.getExam().getId();
+        Long userId = participant.getUser().getId();
+        LocalDateTime completedAt = LocalDateTime.now();
+        if (examParticipantRepository.complete(participant.getId(), completedAt) == 0) {
+            throw new IllegalArgumentException("لقد سلمت هذا الاختبار بالفعل");
+        }
+        int score = examParticipantRepository.findScoreById(participant.getId());
+        ExamScoreboard.Entry entry = ExamScoreboard.Entry.of(participant, score, completedAt);
+        AfterCommit.run(() -> {
+            examScoreboard.record(examId, entry);
+            examRoomHub.participantCompleted(examId, userId);
+        });
+        dto.setScore(score);
+        dto.setCompleted(true);
+        log.info("User {} submitted exam {}: {}/{}", userId, examId, score, participant.getExam().getTotalQuestions());
+    }
+    
+    // Ranking of everyone who has finished so far, with the caller's own result
+    @Transactional(readOnly = true)
+    public ExamResultsDTO getExamResults(Long examId, Long userId, int limit) {
+        ScheduledExam exam = scheduledExamRepository.findById(examId)
+            .orElseThrow(() -> new ResourceNotFoundException("الاختبار غير موجود"));
+        
+        if (!exam.getCreator().getId().equals(userId)
+                && !examParticipantRepository.existsByExamIdAndUserId(examId, userId)) {
+            throw new UnauthorizedException("غير مصرح لك بالوصول لنتائج هذا الاختبار");
+        }
+        
+        ExamResultsDTO dto = new ExamResultsDTO();
+        dto.setExamId(examId);
+        dto.setTotalQuestions(exam.getTotalQuestions());
+        dto.setParticipants(exam.getCurrentParticipants());
+        dto.setSubmitted(examScoreboard.size(examId));
+        dto.setFinalized(exam.getFinalizedAt() != null);
+        dto.setRanking(examScoreboard.top(examId, limit).stream()
+            .map(this::toRankingDTO)
+            .collect(Collectors.toList()));
+        dto.setMyResult(examScoreboard.find(examId, userId)
+            .map(this::toRankingDTO)
+            .orElse(null));
+        return dto;
+    }
+    
+    // Exams that ended (plus the submission grace) and still have participants without a final status
+    @Transactional(readOnly = true)
+    public List<Long> findExamsToFinalize() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(SUBMIT_GRACE_SECONDS);
+        return scheduledExamRepository.findUnfinalizedStartedBefore(cutoff).stream()
+            .filter(exam -> exam.getEndTime().isBefore(cutoff))
+            .map(ScheduledExam::getId)
+            .collect(Collectors.toList());
+    }
+    
+    // Participants still answering are completed with what they submitted; those who never started are absent
+    @Transactional
+    public void finalizeExam(Long examId) {
+        if (scheduledExamRepository.markFinalized(examId, LocalDateTime.now()) == 0) {
+            return;
+        }
+        ScheduledExam exam = scheduledExamRepository.findById(examId)
+            .orElseThrow(() -> new ResourceNotFoundException("الاختبار غير موجود"));
+        
+        int completed = examParticipantRepository.completeStarted(examId, exam.getEndTime());
+        int absent = examParticipantRepository.markAbsent(examId);
+        
+        // Read after the updates: any later submission for these rows now fails, so nothing newer can exist
+        List<ExamScoreboard.Entry> entries = examParticipantRepository.findWithUserByExamIdAndStatus(examId, "COMPLETED")
+            .stream()
+            .map(ExamScoreboard.Entry::of)
+            .toList();
+        AfterCommit.run(() -> {
+            examScoreboard.recordAll(examId, entries);
+            examRoomHub.finalized(examId);
+        });
+        examChanged(exam.getExamCode());
+        
+        log.info("Finalized exam {}: {} results, {} completed at the deadline, {} absent",
+            examId, entries.size(), completed, absent);
+    }
+    
     @Transactional(readOnly = true)
     public List<ScheduledExamDTO> getUserExams(Long userId) {
         List<ExamParticipant> participants = examParticipantRepository.findByUserId(userId);
         
         return participants.stream()
-            .map(p -> toDTO(p.getExam(), userId))
+            .map(p -> toDTO(p.getExam(), true))
             .collect(Collectors.toList());
     }
     
@@ -185,11 +381,31 @@ public class ScheduledExamService {
         
         exam.setIsActive(false);
         scheduledExamRepository.save(exam);
+        examChanged(exam.getExamCode());
+        AfterCommit.run(() -> {
+            examAdmission.evict(examId);
+            examPaperCache.evict(examId);
+            examScoreboard.evict(examId);
+            examRoomHub.cancelled(examId);
+        });
         
         log.info("Exam {} cancelled by creator {}", examId, userId);
     }
     
+    // Lobby and running-exam updates are pushed from the room's in-memory state
+    public SseEmitter openRoom(Long examId, Long userId) {
+        return examRoomHub.subscribe(examId, userId);
+    }
+    
+    private void examChanged(String examCode) {
+        AfterCommit.run(() -> contentVersions.changed(ContentVersions.Content.EXAMS, examCode));
+    }
+    
     private ScheduledExamDTO toDTO(ScheduledExam exam, Long userId) {
+        return toDTO(exam, examParticipantRepository.existsByExamIdAndUserId(exam.getId(), userId));
+    }
+    
+    private ScheduledExamDTO toDTO(ScheduledExam exam, boolean isRegistered) {
         ScheduledExamDTO dto = new ScheduledExamDTO();
         dto.setId(exam.getId());
         dto.setExamCode(exam.getExamCode());
@@ -206,14 +422,17 @@ public class ScheduledExamService {
         dto.setCanJoin(exam.canJoin());
         dto.setCreatorName(exam.getCreator().getFullName());
         dto.setCreatedAt(exam.getCreatedAt());
-        
-        boolean isRegistered = examParticipantRepository
-            .existsByExamIdAndUserId(exam.getId(), userId);
         dto.setIsRegistered(isRegistered);
         
         return dto;
     }
     
+    private ExamRankingEntryDTO toRankingDTO(ExamScoreboard.Ranked ranked) {
+        ExamScoreboard.Entry entry = ranked.entry();
+        return new ExamRankingEntryDTO(ranked.rank(), entry.userId(), entry.userName(), entry.score(),
+            entry.timeTakenSeconds(), entry.completedAt());
+    }
+    
     private ExamParticipantDTO toParticipantDTO(ExamParticipant participant) {
         ExamParticipantDTO dto = new ExamParticipantDTO();
         dto.setId(participant.getId());
@@ -227,55 +446,24 @@ public class ScheduledExamService {
         return dto;
     }
 
+    // The paper is shared by every participant, so only the registration check reaches the database
     @Transactional(readOnly = true)
-public List<QuestionDTO> getExamQuestions(Long userId, Long examId) {
-    // Verify user is registered for this exam
-    ExamParticipant participant = examParticipantRepository
-        .findByExamIdAndUserId(examId, userId)
-        .orElseThrow(() -> new ResourceNotFoundException("أنت غير مسجل في هذا الاختبار"));
-    
-    ScheduledExam exam = participant.getExam();
-    
-    if (exam.getQuestionIds() == null || exam.getQuestionIds().isEmpty()) {
-        throw new IllegalArgumentException("لا توجد أسئلة في هذا الاختبار");
+    public List<QuestionDTO> getExamQuestions(Long userId, Long examId) {
+        if (!examParticipantRepository.existsByExamIdAndUserId(examId, userId)) {
+            throw new ResourceNotFoundException("أنت غير مسجل في هذا الاختبار");
+        }
+        
+        List<QuestionDTO> questions = examPaperCache.get(examId).questions();
+        if (questions.isEmpty()) {
+            throw new IllegalArgumentException("لا توجد أسئلة في هذا الاختبار");
+        }
+        return questions;
     }
-    
-    // Parse question IDs
-    List<Long> questionIds = Arrays.stream(exam.getQuestionIds().split(","))
-        .map(Long::parseLong)
-        .collect(Collectors.toList());
-    
-    // Fetch questions
-    List<Question> questions = questionRepository.findAllById(questionIds);
-    
-    return questions.stream()
-        .map(q -> toQuestionDTO(q, userId))
-        .collect(Collectors.toList());
-}
-
-private QuestionDTO toQuestionDTO(Question question, Long userId) {
-    QuestionDTO dto = new QuestionDTO();
-    dto.setId(question.getId());
-    dto.setCategoryId(question.getCategory().getId());
-    dto.setCategoryName(question.getCategory().getNameAr());
-    dto.setQuestionAr(question.getQuestionAr());
-    dto.setQuestionEn(question.getQuestionEn());
-    dto.setDifficulty(question.getDifficulty());
-
-    dto.setOptionsAr(Arrays.asList(
-        question.getOptionAAr(),
-        question.getOptionBAr(),
-        question.getOptionCAr(),
-        question.getOptionDAr()
-    ));
 
-    dto.setOptionsEn(Arrays.asList(
-        question.getOptionAEn(),
-        question.getOptionBEn(),
-        question.getOptionCEn(),
-        question.getOptionDEn()
-    ));
-
-    return dto;
+    private record ExamTiming(LocalDateTime startTime, LocalDateTime endTime) {
+        // Mirrors ScheduledExam.isStarted / isExpired
+        int phase(LocalDateTime now) {
+            return now.isAfter(endTime) ? 2 : now.isAfter(startTime) ? 1 : 0;
+        }
+    }
 }
-}
\ No newline at end of file
@@ -5,7 +5,10 @@ import com.fiqhmaster.entity.*;
 import com.fiqhmaster.repository.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -15,8 +18,9 @@ public class StatsService {
     private final UserRepository userRepository;
     private final QuizAttemptRepository quizAttemptRepository;
     private final UserAnswerRepository userAnswerRepository;
-    private final CategoryRepository categoryRepository;
-    private final QuestionRepository questionRepository;
+    private final CategoryCatalog categoryCatalog;
+    private final UserCategoryStatsRepository userCategoryStatsRepository;
+    private final LeaderboardIndex leaderboardIndex;
     
     public UserStatsDTO getUserStats(Long userId) {
         User user = userRepository.findById(userId)
@@ -44,31 +48,18 @@ public class StatsService {
     }
     
     public Map<String, CategoryStatsDTO> getCategoryStats(Long userId) {
-        List<QuizAttempt> attempts = quizAttemptRepository.findByUserIdOrderByStartedAtDesc(userId);
         Map<String, CategoryStatsDTO> categoryStatsMap = new HashMap<>();
         
-        for (QuizAttempt attempt : attempts) {
-            if (!attempt.getCompleted() || attempt.getCategory() == null) continue;
-            
-            String categoryName = attempt.getCategory().getNameAr();
-            CategoryStatsDTO categoryStats = categoryStatsMap.getOrDefault(
-                categoryName, 
-                new CategoryStatsDTO()
-            );
-            
+        for (UserCategoryStats row : userCategoryStatsRepository.findByUserId(userId)) {
+            String categoryName = row.getCategory().getNameAr();
+            CategoryStatsDTO categoryStats = new CategoryStatsDTO();
             categoryStats.setCategoryName(categoryName);
-            categoryStats.setQuestionsAnswered(
-                (categoryStats.getQuestionsAnswered() != null ? categoryStats.getQuestionsAnswered() : 0) 
-                + attempt.getTotalQuestions()
-            );
-            categoryStats.setCorrectAnswers(
-                (categoryStats.getCorrectAnswers() != null ? categoryStats.getCorrectAnswers() : 0) 
-                + attempt.getCorrectAnswers()
-            );
+            categoryStats.setQuestionsAnswered(row.getQuestionsTotal());
+            categoryStats.setCorrectAnswers(row.getCorrectAnswers());
             
-            if (categoryStats.getQuestionsAnswered() > 0) {
+            if (row.getQuestionsTotal() > 0) {
                 categoryStats.setAccuracy(
-                    (categoryStats.getCorrectAnswers().doubleValue() / categoryStats.getQuestionsAnswered()) * 100
+                    (row.getCorrectAnswers().doubleValue() / row.getQuestionsTotal()) * 100
                 );
             }
             
@@ -78,6 +69,26 @@ public class StatsService {
         return categoryStatsMap;
     }
     
+    // Called by QuizService.completeQuiz inside its transaction
+    @Transactional
+    public void recordCompletedQuiz(QuizAttempt attempt) {
+        if (attempt.getCategory() == null) {
+            return;
+        }
+        Long userId = attempt.getUser().getId();
+        Long categoryId = attempt.getCategory().getId();
+        int answers = (int) userAnswerRepository.countByQuizAttemptId(attempt.getId());
+        int newQuestions = (int) userAnswerRepository.countQuestionsFirstSeen(attempt.getId(), userId, categoryId);
+        Double score = attempt.getScorePercentage();
+        
+        userCategoryStatsRepository.accumulate(userId, categoryId,
+            attempt.getTotalQuestions(), answers, attempt.getCorrectAnswers(), newQuestions,
+            score != null ? 1 : 0, score != null ? score : 0.0);
+        userCategoryStatsRepository.findTotals(userId, categoryId).ifPresent(totals ->
+            leaderboardIndex.categoryStatsChanged(userId, categoryId,
+                totals.getQuizzesTaken(), totals.getCorrectAnswers()));
+    }
+    
     public Map<String, Object> getUserProgress(Long userId) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("المستخدم غير موجود"));
@@ -89,11 +100,10 @@ public class StatsService {
         progress.put("experiencePoints", user.getTotalCorrectAnswers());
         progress.put("nextLevelAt", getNextLevelRequirement(user.getTotalQuizzes()));
         
-        // Weekly progress
-        progress.put("weeklyProgress", getWeeklyProgress(userId));
-        
-        // Monthly progress
-        progress.put("monthlyProgress", getMonthlyProgress(userId));
+        // Weekly and monthly progress
+        ProgressTotals totals = foldRecentAttempts(userId);
+        progress.put("weeklyProgress", totals.weekly());
+        progress.put("monthlyProgress", totals.monthly());
         
         // Category progress
         progress.put("categoryProgress", getCategoryProgress(userId));
@@ -118,182 +128,145 @@ public class StatsService {
     }
     
     public Map<String, Object> getWeeklyProgress(Long userId) {
-        LocalDateTime weekAgo = LocalDateTime.now().minusWeeks(1);
-        List<QuizAttempt> weeklyAttempts = quizAttemptRepository
-            .findByUserIdOrderByStartedAtDesc(userId)
-            .stream()
-            .filter(attempt -> attempt.getStartedAt().isAfter(weekAgo) && attempt.getCompleted())
-            .collect(Collectors.toList());
-        
-        Map<String, Object> weeklyData = new HashMap<>();
-        weeklyData.put("quizzesCompleted", weeklyAttempts.size());
-        weeklyData.put("totalQuestions", weeklyAttempts.stream()
-            .mapToInt(QuizAttempt::getTotalQuestions)
-            .sum());
-        weeklyData.put("correctAnswers", weeklyAttempts.stream()
-            .mapToInt(QuizAttempt::getCorrectAnswers)
-            .sum());
-        
-        // Daily breakdown
-        Map<String, Integer> dailyBreakdown = new LinkedHashMap<>();
-        for (int i = 6; i >= 0; i--) {
-            LocalDateTime day = LocalDateTime.now().minusDays(i);
-            String dayKey = day.toLocalDate().toString();
-            int count = (int) weeklyAttempts.stream()
-                .filter(a -> a.getStartedAt().toLocalDate().equals(day.toLocalDate()))
-                .count();
-            dailyBreakdown.put(dayKey, count);
+        return foldRecentAttempts(userId).weekly();
+    }
+    
+    public Map<String, Object> getMonthlyProgress(Long userId) {
+        return foldRecentAttempts(userId).monthly();
+    }
+    
+    // One query bounded to the last month, folded into the weekly and monthly totals in a single pass
+    private ProgressTotals foldRecentAttempts(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime weekAgo = now.minusWeeks(1);
+        LocalDate today = now.toLocalDate();
+        ProgressTotals totals = new ProgressTotals(today);
+        
+        for (QuizAttemptRepository.AttemptSummary attempt :
+                quizAttemptRepository.findCompletedSince(userId, now.minusMonths(1))) {
+            int questions = attempt.getTotalQuestions() != null ? attempt.getTotalQuestions() : 0;
+            int correct = attempt.getCorrectAnswers() != null ? attempt.getCorrectAnswers() : 0;
+            
+            totals.monthQuizzes++;
+            totals.monthQuestions += questions;
+            totals.monthCorrect += correct;
+            if (attempt.getScorePercentage() != null) {
+                totals.scoreSum += attempt.getScorePercentage();
+                totals.scored++;
+            }
+            
+            if (attempt.getStartedAt().isAfter(weekAgo)) {
+                totals.weekQuizzes++;
+                totals.weekQuestions += questions;
+                totals.weekCorrect += correct;
+                long daysAgo = ChronoUnit.DAYS.between(attempt.getStartedAt().toLocalDate(), today);
+                if (daysAgo >= 0 && daysAgo < totals.daily.length) {
+                    totals.daily[totals.daily.length - 1 - (int) daysAgo]++;
+                }
+            }
         }
-        weeklyData.put("dailyBreakdown", dailyBreakdown);
         
-        return weeklyData;
+        return totals;
     }
     
-    public Map<String, Object> getMonthlyProgress(Long userId) {
-        LocalDateTime monthAgo = LocalDateTime.now().minusMonths(1);
-        List<QuizAttempt> monthlyAttempts = quizAttemptRepository
-            .findByUserIdOrderByStartedAtDesc(userId)
-            .stream()
-            .filter(attempt -> attempt.getStartedAt().isAfter(monthAgo) && attempt.getCompleted())
-            .collect(Collectors.toList());
+    private static final class ProgressTotals {
+        private final LocalDate today;
+        private final int[] daily = new int[7];
+        private int weekQuizzes, weekQuestions, weekCorrect;
+        private int monthQuizzes, monthQuestions, monthCorrect;
+        private double scoreSum;
+        private int scored;
+        
+        private ProgressTotals(LocalDate today) {
+            this.today = today;
+        }
         
-        Map<String, Object> monthlyData = new HashMap<>();
-        monthlyData.put("quizzesCompleted", monthlyAttempts.size());
-        monthlyData.put("totalQuestions", monthlyAttempts.stream()
-            .mapToInt(QuizAttempt::getTotalQuestions)
-            .sum());
-        monthlyData.put("correctAnswers", monthlyAttempts.stream()
-            .mapToInt(QuizAttempt::getCorrectAnswers)
-            .sum());
-        
-        // Safe average calculation with null check
-        double averageScore = 0.0;
-        if (!monthlyAttempts.isEmpty()) {
-            averageScore = monthlyAttempts.stream()
-                .filter(a -> a.getScorePercentage() != null)
-                .mapToDouble(QuizAttempt::getScorePercentage)
-                .average()
-                .orElse(0.0);
+        Map<String, Object> weekly() {
+            Map<String, Object> weeklyData = new HashMap<>();
+            weeklyData.put("quizzesCompleted", weekQuizzes);
+            weeklyData.put("totalQuestions", weekQuestions);
+            weeklyData.put("correctAnswers", weekCorrect);
+            
+            Map<String, Integer> dailyBreakdown = new LinkedHashMap<>();
+            for (int i = 0; i < daily.length; i++) {
+                dailyBreakdown.put(today.minusDays(daily.length - 1 - i).toString(), daily[i]);
+            }
+            weeklyData.put("dailyBreakdown", dailyBreakdown);
+            return weeklyData;
         }
-        monthlyData.put("averageScore", averageScore);
         
-        return monthlyData;
+        Map<String, Object> monthly() {
+            Map<String, Object> monthlyData = new HashMap<>();
+            monthlyData.put("quizzesCompleted", monthQuizzes);
+            monthlyData.put("totalQuestions", monthQuestions);
+            monthlyData.put("correctAnswers", monthCorrect);
+            monthlyData.put("averageScore", scored > 0 ? scoreSum / scored : 0.0);
+            return monthlyData;
+        }
     }
     
     private Map<String, Object> getCategoryProgress(Long userId) {
         Map<String, Object> categoryProgress = new HashMap<>();
-        List<Category> categories = categoryRepository.findAll();
-        
-        for (Category category : categories) {
-            List<QuizAttempt> categoryAttempts = quizAttemptRepository
-                .findByUserIdOrderByStartedAtDesc(userId)
-                .stream()
-                .filter(a -> a.getCompleted() && 
-                            a.getCategory() != null && 
-                            a.getCategory().getId().equals(category.getId()))
-                .collect(Collectors.toList());
-            
-            if (!categoryAttempts.isEmpty()) {
-                Map<String, Object> progress = new HashMap<>();
-                progress.put("quizzesTaken", categoryAttempts.size());
-                
-                // Safe average and max calculations
-                double averageScore = categoryAttempts.stream()
-                    .filter(a -> a.getScorePercentage() != null)
-                    .mapToDouble(QuizAttempt::getScorePercentage)
-                    .average()
-                    .orElse(0.0);
-                progress.put("averageScore", averageScore);
-                
-                double bestScore = categoryAttempts.stream()
-                    .filter(a -> a.getScorePercentage() != null)
-                    .mapToDouble(QuizAttempt::getScorePercentage)
-                    .max()
-                    .orElse(0.0);
-                progress.put("bestScore", bestScore);
-                
-                categoryProgress.put(category.getNameAr(), progress);
-            }
+        
+        for (UserCategoryStats row : userCategoryStatsRepository.findByUserId(userId)) {
+            Map<String, Object> progress = new HashMap<>();
+            progress.put("quizzesTaken", row.getQuizzesTaken());
+            progress.put("averageScore", row.getAverageScore());
+            progress.put("bestScore", row.getBestScore() != null ? row.getBestScore() : 0.0);
+            categoryProgress.put(row.getCategory().getNameAr(), progress);
         }
         
         return categoryProgress;
     }
-
-
-
-   
-public Map<String, Object> getCategoryProgressForUser(Long userId) {
-    Map<String, Object> result = new HashMap<>();
-    List<Category> categories = categoryRepository.findAll();
-    List<QuizAttempt> userAttempts = quizAttemptRepository
-        .findByUserIdAndCompletedOrderByStartedAtDesc(userId, true);
-    
-    // Calculate progress for each category
-    List<Map<String, Object>> categoryProgress = new ArrayList<>();
     
-    for (Category category : categories) {
-        // Get total questions in this category
-        Long totalQuestions = questionRepository.countByCategoryId(category.getId());
-        
-        if (totalQuestions == 0) continue;
-        
-        // Get user's attempts for this category
-        List<QuizAttempt> categoryAttempts = userAttempts.stream()
-            .filter(a -> a.getCategory() != null && 
-                        a.getCategory().getId().equals(category.getId()))
-            .collect(Collectors.toList());
+    public Map<String, Object> getCategoryProgressForUser(Long userId) {
+        Map<String, Object> result = new HashMap<>();
+        List<CategoryDTO> categories = categoryCatalog.snapshot().categories();
+        Map<Long, UserCategoryStats> statsByCategory = new HashMap<>();
+        for (UserCategoryStats row : userCategoryStatsRepository.findByUserId(userId)) {
+            statsByCategory.put(row.getCategory().getId(), row);
+        }
         
-        // Calculate unique questions answered
-        Set<Long> answeredQuestionIds = new HashSet<>();
-        int totalCorrect = 0;
-        int totalAnswered = 0;
+        List<Map<String, Object>> categoryProgress = new ArrayList<>();
         
-        for (QuizAttempt attempt : categoryAttempts) {
-            List<UserAnswer> answers = userAnswerRepository
-                .findByQuizAttemptId(attempt.getId());
+        for (CategoryDTO category : categories) {
+            int totalQuestions = category.getQuestionCount();
             
-            for (UserAnswer answer : answers) {
-                answeredQuestionIds.add(answer.getQuestion().getId());
-                totalAnswered++;
-                if (answer.getIsCorrect()) {
-                    totalCorrect++;
-                }
-            }
+            if (totalQuestions == 0) continue;
+            
+            UserCategoryStats stats = statsByCategory.getOrDefault(category.getId(), new UserCategoryStats());
+            
+            double progress = (stats.getDistinctQuestions() * 100.0) / totalQuestions;
+            double accuracy = stats.getAnswersSubmitted() > 0 
+                ? (stats.getCorrectAnswers() * 100.0) / stats.getAnswersSubmitted() 
+                : 0.0;
+            
+            Map<String, Object> categoryData = new HashMap<>();
+            categoryData.put("categoryId", category.getId());
+            categoryData.put("categoryName", category.getNameAr());
+            categoryData.put("icon", category.getIcon());
+            categoryData.put("color", category.getColor());
+            categoryData.put("progress", (int) Math.min(Math.round(progress), 100));
+            categoryData.put("accuracy", Math.round(accuracy));
+            categoryData.put("questionsAnswered", stats.getDistinctQuestions());
+            categoryData.put("totalQuestions", totalQuestions);
+            categoryData.put("totalCorrect", stats.getCorrectAnswers());
+            categoryData.put("quizzesTaken", stats.getQuizzesTaken());
+            
+            categoryProgress.add(categoryData);
         }
         
-        // Calculate progress percentage
-        double progress = (answeredQuestionIds.size() * 100.0) / totalQuestions;
-        double accuracy = totalAnswered > 0 
-            ? (totalCorrect * 100.0) / totalAnswered 
-            : 0.0;
+        // Sort by progress descending
+        categoryProgress.sort((a, b) -> 
+            ((Integer) b.get("progress")).compareTo((Integer) a.get("progress"))
+        );
+        
+        result.put("categories", categoryProgress);
+        result.put("totalCategories", categories.size());
         
-        Map<String, Object> categoryData = new HashMap<>();
-        categoryData.put("categoryId", category.getId());
-        categoryData.put("categoryName", category.getNameAr());
-        categoryData.put("icon", category.getIcon());
-        categoryData.put("color", category.getColor());
-        categoryData.put("progress", Math.min(Math.round(progress), 100));
-        categoryData.put("accuracy", Math.round(accuracy));
-        categoryData.put("questionsAnswered", answeredQuestionIds.size());
-        categoryData.put("totalQuestions", totalQuestions.intValue());
-        categoryData.put("totalCorrect", totalCorrect);
-        categoryData.put("quizzesTaken", categoryAttempts.size());
-        
-        categoryProgress.add(categoryData);
+        return result;
     }
     
-    // Sort by progress descending
-    categoryProgress.sort((a, b) -> 
-        ((Integer) b.get("progress")).compareTo((Integer) a.get("progress"))
-    );
-    
-    result.put("categories", categoryProgress);
-    result.put("totalCategories", categories.size());
-    
-    return result;
-}
-    
-
     public List<Map<String, Object>> getUserAchievements(Long userId) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("المستخدم غير موجود"));
@@ -0,0 +1,72 @@
+package com.fiqhmaster.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: a ring of buckets, one per tick, where a task lands in the bucket of
+ * the tick it falls due on. Scheduling is O(1) and advancing only visits the buckets of the
+ * ticks that passed; tasks due more than one revolution ahead wait in their bucket until the
+ * wheel comes round to their tick. Not thread-safe; callers guard it.
+ */
+final class TimeWheel<T> {
+    private final long tickMillis;
+    private final List<Timer<T>>[] buckets;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimeWheel(long tickMillis, int bucketCount, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.buckets = new List[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Never fires early: rounded up to a tick boundary. Tasks already due fire on the next advance
+    void schedule(T task, long dueMillis) {
+        long tick = Math.max(-Math.floorDiv(-dueMillis, tickMillis), currentTick + 1);
+        buckets[bucket(tick)].add(new Timer<>(task, tick, dueMillis));
+        size++;
+    }
+
+    // Every task due up to now, earliest first
+    List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        if (targetTick <= currentTick) {
+            return List.of();
+        }
+        List<Timer<T>> due = new ArrayList<>();
+        // Past one revolution every bucket has been visited
+        long from = Math.max(currentTick + 1, targetTick - buckets.length + 1);
+        for (long tick = from; tick <= targetTick; tick++) {
+            Iterator<Timer<T>> timers = buckets[bucket(tick)].iterator();
+            while (timers.hasNext()) {
+                Timer<T> timer = timers.next();
+                if (timer.tick() <= targetTick) {
+                    timers.remove();
+                    due.add(timer);
+                }
+            }
+        }
+        currentTick = targetTick;
+        size -= due.size();
+        due.sort(Comparator.comparingLong(Timer::dueMillis));
+        return due.stream().map(Timer::task).toList();
+    }
+
+    private int bucket(long tick) {
+        return (int) Math.floorMod(tick, (long) buckets.length);
+    }
+
+    private record Timer<T>(T task, long tick, long dueMillis) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Keeps the leaderboard in step with every committed change to a user's stats or streak
+public class UserEntityListener {
+    private final ObjectProvider<LeaderboardIndex> leaderboardIndex;
+
+    public UserEntityListener(ObjectProvider<LeaderboardIndex> leaderboardIndex) {
+        this.leaderboardIndex = leaderboardIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(User user) {
+        leaderboardIndex.ifAvailable(index -> index.userSaved(user));
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        leaderboardIndex.ifAvailable(index -> index.userRemoved(user.getId()));
+    }
+}
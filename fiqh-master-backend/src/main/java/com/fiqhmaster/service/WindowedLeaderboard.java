@@ -0,0 +1,198 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.repository.QuizAttemptRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Daily, weekly and monthly rankings from per-day buckets of userId -> quizzes,
+ * correct answers and questions answered. A window is the merge of its most recent
+ * buckets; buckets older than the longest window are dropped. Merged rankings are
+ * reused for a few seconds.
+ */
+@Component
+@Slf4j
+public class WindowedLeaderboard implements MeterBinder {
+    private static final int RETENTION_DAYS = 30;
+    // A quiz commits right after it is completed; older loaded attempts cannot still be reported
+    private static final int RECENT_MINUTES = 10;
+
+    // Three 21-bit counters in one long: quizzes | correct | answered
+    private static final int FIELD_BITS = 21;
+    private static final long FIELD_MASK = (1L << FIELD_BITS) - 1;
+
+    private static final Comparator<Standing> BY_SCORE = Comparator
+        .comparingInt(Standing::correctAnswers).reversed()
+        .thenComparingInt(Standing::answered)
+        .thenComparingLong(Standing::userId);
+
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final long cacheMillis;
+
+    private final ConcurrentSkipListMap<LocalDate, Map<Long, AtomicLong>> buckets = new ConcurrentSkipListMap<>();
+    private final Map<Window, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong snapshotVersions = new AtomicLong();
+    private final List<Score> pending = new ArrayList<>();
+    private final Lock lock = new ReentrantLock();
+    private volatile boolean loaded;
+    // Attempts the load read that completed just before it; their after-commit reports may still arrive
+    private volatile Set<Long> recentlyLoaded = Set.of();
+
+    public enum Window {
+        DAILY(1), WEEKLY(7), MONTHLY(30);
+
+        private final int days;
+
+        Window(int days) {
+            this.days = days;
+        }
+    }
+
+    public record Standing(long userId, int quizzes, int correctAnswers, int answered) {}
+
+    public WindowedLeaderboard(QuizAttemptRepository quizAttemptRepository,
+                               @Value("${fiqh.leaderboard.window-cache-ms:15000}") long cacheMillis) {
+        this.quizAttemptRepository = quizAttemptRepository;
+        this.cacheMillis = cacheMillis;
+    }
+
+    public List<Standing> top(Window window, int limit) {
+        List<Standing> standings = snapshot(window).standings();
+        return standings.subList(0, Math.max(0, Math.min(limit, standings.size())));
+    }
+
+    // Identifies the ranking currently served for the window; changes whenever it is rebuilt
+    public long version(Window window) {
+        return snapshot(window).version();
+    }
+
+    public void quizCompleted(Long attemptId, Long userId, int correctAnswers, int answered, LocalDateTime completedAt) {
+        Score score = new Score(attemptId, userId, correctAnswers, answered, completedAt);
+        AfterCommit.run(() -> {
+            if (!loaded) {
+                lock.lock();
+                try {
+                    if (!loaded) {
+                        pending.add(score);
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (!recentlyLoaded.contains(score.attemptId())) {
+                add(score);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            // Attempts the query does not see arrive through quizCompleted instead; those reported
+            // before the load finishes are matched against the rows by attempt ID, not by time
+            LocalDateTime loadedUntil = LocalDateTime.now();
+            LocalDateTime since = LocalDate.now().minusDays(RETENTION_DAYS - 1).atStartOfDay();
+            LocalDateTime recentSince = loadedUntil.minusMinutes(RECENT_MINUTES);
+            Set<Long> loadedIds = new HashSet<>();
+            Set<Long> recent = new HashSet<>();
+            for (QuizAttemptRepository.CompletedScore row : quizAttemptRepository.findCompletedBetween(since, loadedUntil)) {
+                add(new Score(row.getAttemptId(), row.getUserId(), valueOf(row.getCorrectAnswers()),
+                    valueOf(row.getTotalQuestions()), row.getCompletedAt()));
+                loadedIds.add(row.getAttemptId());
+                if (!row.getCompletedAt().isBefore(recentSince)) {
+                    recent.add(row.getAttemptId());
+                }
+            }
+            for (Score score : pending) {
+                if (!loadedIds.contains(score.attemptId())) {
+                    add(score);
+                }
+            }
+            int rows = loadedIds.size();
+            pending.clear();
+            recentlyLoaded = Set.copyOf(recent);
+            loaded = true;
+            log.info("Windowed leaderboard built from {} attempts in {} day buckets ({} ms)",
+                rows, buckets.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fiqh.leaderboard.window.buckets", buckets, Map::size)
+            .description("Per-day score buckets held for the windowed leaderboards")
+            .register(registry);
+    }
+
+    private Snapshot snapshot(Window window) {
+        if (!loaded) {
+            load();
+        }
+        LocalDate today = LocalDate.now();
+        long now = System.currentTimeMillis();
+        Snapshot snapshot = snapshots.get(window);
+        if (snapshot != null && snapshot.day().equals(today) && snapshot.expiresAt() > now) {
+            return snapshot;
+        }
+
+        buckets.headMap(today.minusDays(RETENTION_DAYS - 1)).clear();
+        Map<Long, Long> merged = new HashMap<>();
+        for (Map<Long, AtomicLong> bucket : buckets.subMap(today.minusDays(window.days - 1), true, today, true).values()) {
+            bucket.forEach((userId, packed) -> merged.merge(userId, packed.get(), Long::sum));
+        }
+
+        List<Standing> standings = new ArrayList<>(merged.size());
+        merged.forEach((userId, packed) -> standings.add(new Standing(userId,
+            (int) (packed >>> (2 * FIELD_BITS)), (int) ((packed >>> FIELD_BITS) & FIELD_MASK), (int) (packed & FIELD_MASK))));
+        standings.sort(BY_SCORE);
+
+        snapshot = new Snapshot(today, now + cacheMillis, Collections.unmodifiableList(standings),
+            snapshotVersions.incrementAndGet());
+        snapshots.put(window, snapshot);
+        return snapshot;
+    }
+
+    private void add(Score score) {
+        LocalDate day = score.completedAt().toLocalDate();
+        if (day.isBefore(LocalDate.now().minusDays(RETENTION_DAYS - 1))) {
+            return;
+        }
+        long delta = (1L << (2 * FIELD_BITS))
+            | ((long) Math.min(score.correctAnswers(), FIELD_MASK) << FIELD_BITS)
+            | Math.min(score.answered(), FIELD_MASK);
+        buckets.computeIfAbsent(day, d -> new ConcurrentHashMap<>())
+            .computeIfAbsent(score.userId(), id -> new AtomicLong())
+            .addAndGet(delta);
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private record Score(Long attemptId, Long userId, int correctAnswers, int answered, LocalDateTime completedAt) {}
+
+    private record Snapshot(LocalDate day, long expiresAt, List<Standing> standings, long version) {}
+}
@@ -0,0 +1,74 @@
+package com.fiqhmaster.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GuardedDataSourceTest {
+
+	private final HikariDataSource primary = pool("primary", 1);
+	private final HikariDataSource reserve = pool("reserve", 1);
+
+	@AfterEach
+	void tearDown() {
+		primary.close();
+		reserve.close();
+	}
+
+	@Test
+	void nestedConnectionComesFromReservePool() throws Exception {
+		GuardedDataSource dataSource = new GuardedDataSource(primary, reserve, 0);
+
+		try (Connection outer = dataSource.getConnection()) {
+			// The primary pool has a single connection, so this would time out without the reserve
+			try (Connection nested = dataSource.getConnection()) {
+				assertThat(nested.isValid(1)).isTrue();
+				assertThat(reserve.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+			}
+			assertThat(primary.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+		}
+
+		try (Connection next = dataSource.getConnection()) {
+			assertThat(reserve.getHikariPoolMXBean().getActiveConnections()).isZero();
+			assertThat(primary.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	void rejectsThreadsBeyondAdmissionLimit() throws Exception {
+		GuardedDataSource dataSource = new GuardedDataSource(primary, reserve, 1);
+
+		try (Connection held = dataSource.getConnection()) {
+			CompletableFuture<Connection> other = CompletableFuture.supplyAsync(() -> {
+				try {
+					return dataSource.getConnection();
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			assertThatThrownBy(() -> other.get(5, TimeUnit.SECONDS))
+				.hasRootCauseInstanceOf(SQLTransientConnectionException.class);
+			assertThat(dataSource.rejected()).isEqualTo(1);
+		}
+
+		assertThat(dataSource.available()).isEqualTo(1);
+	}
+
+	private static HikariDataSource pool(String name, int size) {
+		HikariDataSource pool = new HikariDataSource();
+		pool.setPoolName(name);
+		pool.setJdbcUrl("jdbc:h2:mem:guarded_" + name);
+		pool.setUsername("sa");
+		pool.setMaximumPoolSize(size);
+		pool.setConnectionTimeout(1_000);
+		return pool;
+	}
+}
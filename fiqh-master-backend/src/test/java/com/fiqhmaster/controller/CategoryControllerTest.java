@@ -0,0 +1,85 @@
+package com.fiqhmaster.controller;
+
+import com.fiqhmaster.entity.Question;
+import com.fiqhmaster.entity.User;
+import com.fiqhmaster.repository.QuestionRepository;
+import com.fiqhmaster.repository.UserRepository;
+import com.fiqhmaster.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.not;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CategoryControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private QuestionRepository questionRepository;
+
+	@Test
+	void categoryListIsConditionalAndFollowsQuestionChanges() throws Exception {
+		User user = userRepository.findAll().get(0);
+		String authorization = "Bearer " + jwtUtil.generateToken(user.getEmail(), user.getId());
+		Question question = questionRepository.findAll().get(0);
+		Long categoryId = question.getCategory().getId();
+
+		String etag = mockMvc.perform(get("/api/categories").header("Authorization", authorization))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$[0].questionCountByDifficulty").isMap())
+			.andReturn().getResponse().getHeader("ETag");
+		assertThat(etag).isNotBlank();
+
+		mockMvc.perform(get("/api/categories").header("Authorization", authorization).header("If-None-Match", etag))
+			.andExpect(status().isNotModified());
+
+		int before = categoryCount(authorization, categoryId);
+		Question copy = new Question();
+		copy.setCategory(question.getCategory());
+		copy.setMarja(question.getMarja());
+		copy.setQuestionAr(question.getQuestionAr());
+		copy.setOptionAAr(question.getOptionAAr());
+		copy.setOptionBAr(question.getOptionBAr());
+		copy.setOptionCAr(question.getOptionCAr());
+		copy.setOptionDAr(question.getOptionDAr());
+		copy.setCorrectAnswer(question.getCorrectAnswer());
+		copy.setExplanationAr(question.getExplanationAr());
+		copy.setDifficulty(question.getDifficulty());
+		Question saved = questionRepository.save(copy);
+		try {
+			assertThat(categoryCount(authorization, categoryId)).isEqualTo(before + 1);
+			mockMvc.perform(get("/api/categories").header("Authorization", authorization).header("If-None-Match", etag))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", not(etag)));
+		} finally {
+			questionRepository.delete(saved);
+		}
+		assertThat(categoryCount(authorization, categoryId)).isEqualTo(before);
+	}
+
+	private int categoryCount(String authorization, Long categoryId) throws Exception {
+		String body = mockMvc.perform(get("/api/categories/" + categoryId).header("Authorization", authorization))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		return Integer.parseInt(body.replaceAll("(?s).*\"questionCount\":(\\d+).*", "$1"));
+	}
+}
@@ -0,0 +1,129 @@
+package com.fiqhmaster.controller;
+
+import com.fiqhmaster.entity.User;
+import com.fiqhmaster.repository.QuestionRepository;
+import com.fiqhmaster.repository.UserRepository;
+import com.fiqhmaster.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private QuestionRepository questionRepository;
+
+	private String authorization;
+	private String otherAuthorization;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		User user = userRepository.findAll().get(0);
+		authorization = "Bearer " + jwtUtil.generateToken(user.getEmail(), user.getId());
+		otherAuthorization = "Bearer " + register("conditional-" + System.nanoTime() + "@example.com");
+	}
+
+	@Test
+	void questionTagFollowsTheCallersBookmarks() throws Exception {
+		Long questionId = questionRepository.findAll().get(5).getId();
+		String url = "/api/questions/" + questionId;
+
+		String etag = fetch(url, authorization, null).getResponse().getHeader("ETag");
+		assertThat(fetch(url, authorization, etag).getResponse().getStatus()).isEqualTo(304);
+		// Another user's copy of the same question never matches
+		assertThat(fetch(url, otherAuthorization, etag).getResponse().getStatus()).isEqualTo(200);
+
+		mockMvc.perform(post("/api/user/bookmarks/" + questionId).header("Authorization", authorization)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"notes\":\"\"}"))
+			.andExpect(status().isOk());
+		try {
+			MvcResult changed = fetch(url, authorization, etag);
+			assertThat(changed.getResponse().getStatus()).isEqualTo(200);
+			assertThat(changed.getResponse().getContentAsString()).contains("\"isBookmarked\":true");
+		} finally {
+			mockMvc.perform(delete("/api/user/bookmarks/" + questionId).header("Authorization", authorization));
+		}
+	}
+
+	@Test
+	void leaderboardsAnswerRepeatPollsWithNotModified() throws Exception {
+		for (String url : List.of("/api/leaderboard", "/api/leaderboard/weekly", "/api/leaderboard/me")) {
+			MvcResult first = fetch(url, authorization, null);
+			assertThat(first.getResponse().getHeader("Cache-Control")).contains("private");
+			MvcResult repeat = fetch(url, authorization, first.getResponse().getHeader("ETag"));
+			assertThat(repeat.getResponse().getStatus()).as(url).isEqualTo(304);
+			assertThat(repeat.getResponse().getContentAsString()).isEmpty();
+		}
+	}
+
+	@Test
+	void examTagChangesWhenSomeoneJoins() throws Exception {
+		String creator = authorization;
+		Long questionId = questionRepository.findAll().get(0).getId();
+		String body = mockMvc.perform(post("/api/scheduled-exams/create").header("Authorization", creator)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"title\":\"Conditional\",\"startTime\":\"" + LocalDateTime.now().plusHours(1)
+					+ "\",\"durationMinutes\":30,\"maxParticipants\":10,\"questionIds\":[" + questionId + "]}"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		String examCode = body.replaceAll("(?s).*\"examCode\":\"([^\"]+)\".*", "$1");
+		String url = "/api/scheduled-exams/code/" + examCode;
+
+		String etag = fetch(url, creator, null).getResponse().getHeader("ETag");
+		assertThat(fetch(url, creator, etag).getResponse().getStatus()).isEqualTo(304);
+
+		mockMvc.perform(post("/api/scheduled-exams/join").header("Authorization", otherAuthorization)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"examCode\":\"" + examCode + "\"}"))
+			.andExpect(status().isOk());
+
+		mockMvc.perform(get(url).header("Authorization", creator).header("If-None-Match", etag))
+			.andExpect(status().isOk())
+			.andExpect(header().exists("ETag"))
+			.andExpect(jsonPath("$.currentParticipants").value(1));
+	}
+
+	private MvcResult fetch(String url, String authorization, String etag) throws Exception {
+		var request = get(url).header("Authorization", authorization);
+		if (etag != null) {
+			request.header("If-None-Match", etag);
+		}
+		return mockMvc.perform(request).andReturn();
+	}
+
+	private String register(String email) throws Exception {
+		String body = mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"" + email + "\",\"password\":\"password\",\"fullName\":\"Conditional User\"}"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		return body.replaceAll("(?s).*\"token\":\"([^\"]+)\".*", "$1");
+	}
+}
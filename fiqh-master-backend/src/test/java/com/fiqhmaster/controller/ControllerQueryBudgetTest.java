@@ -0,0 +1,108 @@
+package com.fiqhmaster.controller;
+
+import com.fiqhmaster.entity.User;
+import com.fiqhmaster.repository.CategoryRepository;
+import com.fiqhmaster.repository.QuestionRepository;
+import com.fiqhmaster.repository.UserRepository;
+import com.fiqhmaster.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.fiqhmaster.support.QueryBudget.atMost;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statement budgets per endpoint against the seeded test database. A budget that
+ * starts failing means a change added queries to a hot path (typically an N+1).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ControllerQueryBudgetTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private QuestionRepository questionRepository;
+
+	private String authorization;
+	private Long categoryId;
+	private Long questionId;
+
+	@BeforeEach
+	void setUp() {
+		User user = userRepository.findAll().get(0);
+		authorization = "Bearer " + jwtUtil.generateToken(user.getEmail(), user.getId());
+		categoryId = categoryRepository.findAll().get(0).getId();
+		questionId = questionRepository.findAll().get(0).getId();
+	}
+
+	@Test
+	void categoriesAreServedFromMemory() throws Exception {
+		expect("/api/categories", 0);
+		expect("/api/categories/" + categoryId, 0);
+	}
+
+	@Test
+	void questionEndpoints() throws Exception {
+		expect("/api/questions/random?limit=10", 3);
+		expect("/api/questions/category/" + categoryId + "?limit=10", 1);
+		expect("/api/questions/" + questionId, 1);
+	}
+
+	@Test
+	void userEndpoints() throws Exception {
+		expect("/api/auth/me", 1);
+		expect("/api/user/profile", 1);
+		expect("/api/user/stats", 2);
+		expect("/api/user/progress", 3);
+		expect("/api/user/achievements", 1);
+		expect("/api/user/bookmarks", 1);
+		expect("/api/user/category-progress", 1);
+		expect("/api/quiz/history", 1);
+	}
+
+	@Test
+	void leaderboardsAreServedFromMemory() throws Exception {
+		expect("/api/leaderboard", 0);
+		expect("/api/leaderboard/weekly", 0);
+		expect("/api/leaderboard/me", 0);
+		expect("/api/leaderboard/around-me", 0);
+		expect("/api/leaderboard/streak", 0);
+		expect("/api/leaderboard/category/" + categoryId, 0);
+	}
+
+	@Test
+	void startingAQuiz() throws Exception {
+		mockMvc.perform(post("/api/quiz/start")
+				.header("Authorization", authorization)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"questionCount\":10}"))
+			.andExpect(status().isOk())
+			.andExpect(atMost(4));
+	}
+
+	private void expect(String url, int statements) throws Exception {
+		mockMvc.perform(get(url).header("Authorization", authorization))
+			.andExpect(status().isOk())
+			.andExpect(atMost(statements));
+	}
+}
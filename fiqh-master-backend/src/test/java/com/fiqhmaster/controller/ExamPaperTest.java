@@ -0,0 +1,63 @@
+package com.fiqhmaster.controller;
+
+import com.fiqhmaster.dto.ScheduledExamDTO;
+import com.fiqhmaster.entity.Question;
+import com.fiqhmaster.repository.QuestionRepository;
+import com.fiqhmaster.support.ExamFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static com.fiqhmaster.support.QueryBudget.exactly;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ExamFixtures.class)
+class ExamPaperTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ExamFixtures fixtures;
+
+	@Autowired
+	private QuestionRepository questionRepository;
+
+	@Test
+	void paperKeepsTheCreatorsOrderAndIsServedFromMemory() throws Exception {
+		String authorization = fixtures.authorization(fixtures.creator());
+		List<Question> questions = questionRepository.findAll();
+		List<Long> chosen = List.of(questions.get(4).getId(), questions.get(0).getId(), questions.get(2).getId());
+
+		ScheduledExamDTO exam = fixtures.exam("Paper", null, chosen);
+		String examCode = exam.getExamCode();
+		Long examId = exam.getId();
+		mockMvc.perform(post("/api/scheduled-exams/join").header("Authorization", authorization)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"examCode\":\"" + examCode + "\"}"))
+			.andExpect(status().isOk());
+
+		Integer[] expected = chosen.stream().map(Long::intValue).toArray(Integer[]::new);
+		mockMvc.perform(get("/api/scheduled-exams/" + examId + "/questions").header("Authorization", authorization))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$[*].id", contains(expected)));
+		// Only the registration check once the paper is built
+		mockMvc.perform(get("/api/scheduled-exams/" + examId + "/questions").header("Authorization", authorization))
+			.andExpect(status().isOk())
+			.andExpect(exactly(1))
+			.andExpect(jsonPath("$[*].id", contains(expected)));
+	}
+}
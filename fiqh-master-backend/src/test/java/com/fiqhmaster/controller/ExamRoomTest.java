@@ -0,0 +1,142 @@
+package com.fiqhmaster.controller;
+
+import com.fiqhmaster.dto.ScheduledExamDTO;
+import com.fiqhmaster.metrics.QueryCountHeaderAdvice;
+import com.fiqhmaster.repository.QuestionRepository;
+import com.fiqhmaster.service.ExamRoomHub;
+import com.fiqhmaster.support.ExamFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.fiqhmaster.support.QueryBudget.exactly;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ExamFixtures.class)
+class ExamRoomTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ExamFixtures fixtures;
+
+	@Autowired
+	private QuestionRepository questionRepository;
+
+	@Autowired
+	private ExamRoomHub examRoomHub;
+
+	private String creator;
+
+	@BeforeEach
+	void setUp() {
+		creator = fixtures.authorization(fixtures.creator());
+	}
+
+	@Test
+	void lobbyUpdatesArePushedToEverySubscriber() throws Exception {
+		ScheduledExamDTO exam = createExam();
+		String examCode = exam.getExamCode();
+		String examId = exam.getId().toString();
+		String student = register("Room Student");
+		String latecomer = register("Room Latecomer");
+		join(student, examCode);
+
+		MvcResult creatorStream = subscribe(examId, creator);
+		MvcResult studentStream = subscribe(examId, student);
+		assertThat(examRoomHub.isOpen(Long.valueOf(examId))).isTrue();
+		awaitEvents(creatorStream, "event:snapshot", "Room Student");
+
+		join(latecomer, examCode);
+		for (MvcResult stream : new MvcResult[]{creatorStream, studentStream}) {
+			awaitEvents(stream, "event:joined", "Room Latecomer");
+		}
+
+		mockMvc.perform(delete("/api/scheduled-exams/" + examId + "/cancel").header("Authorization", creator))
+			.andExpect(status().isOk());
+		awaitEvents(studentStream, "event:cancelled");
+		assertThat(examRoomHub.isOpen(Long.valueOf(examId))).isFalse();
+	}
+
+	@Test
+	void onlyTheCreatorAndParticipantsMayListen() throws Exception {
+		String examId = createExam().getId().toString();
+		mockMvc.perform(get("/api/scheduled-exams/" + examId + "/room").header("Authorization", register("Room Stranger")))
+			.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void detailsDoNotQueryPerParticipant() throws Exception {
+		ScheduledExamDTO exam = createExam();
+		String examCode = exam.getExamCode();
+		String examId = exam.getId().toString();
+		join(register("Details Student"), examCode);
+		String statements = mockMvc.perform(get("/api/scheduled-exams/" + examId + "/details").header("Authorization", creator))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader(QueryCountHeaderAdvice.QUERY_COUNT);
+
+		for (int i = 0; i < 5; i++) {
+			join(register("Details Student " + i), examCode);
+		}
+		mockMvc.perform(get("/api/scheduled-exams/" + examId + "/details").header("Authorization", creator))
+			.andExpect(status().isOk())
+			.andExpect(exactly(Integer.parseInt(statements)));
+	}
+
+	// Events are written on the task executor, after the request that caused them has returned
+	private void awaitEvents(MvcResult stream, String... fragments) throws Exception {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!containsAll(stream.getResponse().getContentAsString(), fragments) && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(stream.getResponse().getContentAsString()).contains(fragments);
+	}
+
+	private static boolean containsAll(String content, String... fragments) {
+		for (String fragment : fragments) {
+			if (!content.contains(fragment)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private MvcResult subscribe(String examId, String authorization) throws Exception {
+		return mockMvc.perform(get("/api/scheduled-exams/" + examId + "/room").header("Authorization", authorization))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+	}
+
+	private ScheduledExamDTO createExam() {
+		return fixtures.exam("Room", null, List.of(questionRepository.findAll().get(0).getId()));
+	}
+
+	private void join(String authorization, String examCode) throws Exception {
+		mockMvc.perform(post("/api/scheduled-exams/join").header("Authorization", authorization)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"examCode\":\"" + examCode + "\"}"))
+			.andExpect(status().isOk());
+	}
+
+	private String register(String fullName) {
+		return fixtures.authorization(fixtures.user(fullName));
+	}
+}
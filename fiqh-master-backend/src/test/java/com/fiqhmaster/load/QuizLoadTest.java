@@ -0,0 +1,321 @@
+package com.fiqhmaster.load;
+
+import com.fiqhmaster.entity.Category;
+import com.fiqhmaster.entity.Question;
+import com.fiqhmaster.repository.CategoryRepository;
+import com.fiqhmaster.repository.QuestionRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives peak quiz traffic against the full application on H2: registration and
+ * login, quiz start/answer/complete with leaderboard polling, an exam join storm and
+ * the whole class submitting the exam at once.
+ * Excluded from the default build; run with
+ * {@code mvn test -Pload -Dload.users=500 -Dload.questions=2000}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+	properties = "logging.level.com.fiqhmaster=WARN")
+@ActiveProfiles("test")
+class QuizLoadTest {
+
+	private static final int USERS = Integer.getInteger("load.users", 200);
+	private static final int QUESTIONS = Integer.getInteger("load.questions", 500);
+	private static final int QUIZZES_PER_USER = Integer.getInteger("load.quizzes", 3);
+	private static final int QUESTIONS_PER_QUIZ = Integer.getInteger("load.quiz-size", 10);
+	// Only used when virtual threads are unavailable
+	private static final int THREADS = Integer.getInteger("load.threads", 64);
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private QuestionRepository questionRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final HttpClient http = HttpClient.newBuilder()
+		.version(HttpClient.Version.HTTP_1_1)
+		.connectTimeout(Duration.ofSeconds(10))
+		.build();
+
+	@Test
+	void peakQuizTraffic() throws Exception {
+		growQuestionBank();
+		System.out.printf("Load test: %d users, %d questions, %d quizzes of %d questions per user, %s%n",
+			USERS, questionRepository.count(), QUIZZES_PER_USER, QUESTIONS_PER_QUIZ, executorDescription());
+
+		Recorder auth = new Recorder("register/login");
+		List<String> tokens = runConcurrently(USERS, i -> {
+			String email = "load-" + i + "@example.com";
+			auth.call("POST /api/auth/register", post("/api/auth/register", null, Map.of(
+				"email", email, "password", "password", "fullName", "Load User " + i)));
+			return auth.call("POST /api/auth/login", post("/api/auth/login", null, Map.of(
+				"email", email, "password", "password"))).get("token").asString();
+		});
+		auth.report();
+
+		Recorder quiz = new Recorder("quiz");
+		runConcurrently(USERS, i -> {
+			String token = tokens.get(i);
+			for (int q = 0; q < QUIZZES_PER_USER; q++) {
+				takeQuiz(quiz, token);
+				quiz.call("GET /api/leaderboard", get("/api/leaderboard?limit=50", token));
+				quiz.call("GET /api/leaderboard/me", get("/api/leaderboard/me", token));
+			}
+			return null;
+		});
+		quiz.report();
+
+		Recorder exam = new Recorder("exam join storm");
+		String examCode = createExam(exam, tokens.get(0));
+		CountDownLatch bell = new CountDownLatch(1);
+		List<Object> joined = runConcurrently(USERS - 1, i -> {
+			bell.await();
+			return exam.call("POST /api/scheduled-exams/join",
+				post("/api/scheduled-exams/join", tokens.get(i + 1), Map.of("examCode", examCode)));
+		}, bell::countDown);
+		exam.report();
+		JsonNode examState = exam.call("GET /api/scheduled-exams/code/{code}",
+			get("/api/scheduled-exams/code/" + examCode, tokens.get(0)));
+		System.out.printf("Exam %s: %d joins accepted, currentParticipants=%d%n",
+			examCode, joined.size(), examState.get("currentParticipants").asInt());
+
+		// The bell rings: everyone opens the paper, answers and submits within the same few seconds
+		long examId = examState.get("id").asLong();
+		jdbcTemplate.update("UPDATE scheduled_exams SET start_time = ? WHERE id = ?", LocalDateTime.now().minusSeconds(1), examId);
+		Recorder submit = new Recorder("exam submission burst");
+		CountDownLatch start = new CountDownLatch(1);
+		List<Object> submitted = runConcurrently(USERS - 1, i -> {
+			start.await();
+			return takeExam(submit, tokens.get(i + 1), examId);
+		}, start::countDown);
+		submit.report();
+		JsonNode results = submit.call("GET /api/scheduled-exams/{id}/results",
+			get("/api/scheduled-exams/" + examId + "/results", tokens.get(0)));
+		System.out.printf("Exam %s: %d submissions accepted, %d ranked%n",
+			examCode, submitted.size(), results.get("submitted").asInt());
+
+		assertThat(auth.errors() + quiz.errors() + exam.errors() + submit.errors()).isZero();
+		assertThat(results.get("submitted").asInt()).isEqualTo(USERS - 1);
+	}
+
+	private void takeQuiz(Recorder recorder, String token) throws Exception {
+		long attemptId = recorder.call("POST /api/quiz/start", post("/api/quiz/start", token, Map.of(
+			"quizType", "random", "questionCount", QUESTIONS_PER_QUIZ))).get("quizAttemptId").asLong();
+		JsonNode questions = recorder.call("GET /api/questions/random",
+			get("/api/questions/random?limit=" + QUESTIONS_PER_QUIZ, token));
+		for (JsonNode question : questions) {
+			recorder.call("POST /api/quiz/answer", post("/api/quiz/answer", token, Map.of(
+				"quizAttemptId", attemptId,
+				"questionId", question.get("id").asLong(),
+				"selectedAnswer", ThreadLocalRandom.current().nextInt(4),
+				"timeTakenSeconds", 5)));
+		}
+		recorder.call("POST /api/quiz/complete/{id}",
+			post("/api/quiz/complete/" + attemptId + "?timeTaken=60", token, Map.of()));
+	}
+
+	private JsonNode takeExam(Recorder recorder, String token, long examId) throws Exception {
+		String path = "/api/scheduled-exams/" + examId;
+		recorder.call("POST /api/scheduled-exams/{id}/start", post(path + "/start", token, Map.of()));
+		List<Map<String, Object>> answers = new ArrayList<>();
+		for (JsonNode question : recorder.call("GET /api/scheduled-exams/{id}/questions", get(path + "/questions", token))) {
+			answers.add(Map.of(
+				"questionId", question.get("id").asLong(),
+				"selectedAnswer", ThreadLocalRandom.current().nextInt(4),
+				"timeTakenSeconds", 5));
+		}
+		return recorder.call("POST /api/scheduled-exams/{id}/submit",
+			post(path + "/submit", token, Map.of("answers", answers, "complete", true)));
+	}
+
+	private String createExam(Recorder recorder, String token) throws Exception {
+		List<Long> questionIds = new ArrayList<>();
+		for (JsonNode question : recorder.call("GET /api/questions/random", get("/api/questions/random?limit=20", token))) {
+			questionIds.add(question.get("id").asLong());
+		}
+		Map<String, Object> request = new HashMap<>();
+		request.put("title", "Load test exam");
+		request.put("startTime", LocalDateTime.now().plusMinutes(30));
+		request.put("durationMinutes", 60);
+		request.put("maxParticipants", USERS + 10);
+		request.put("questionIds", questionIds);
+		return recorder.call("POST /api/scheduled-exams/create", post("/api/scheduled-exams/create", token, request))
+			.get("examCode").asString();
+	}
+
+	// Tops the seeded bank up to the requested size with synthetic questions spread over the seeded categories
+	private void growQuestionBank() {
+		List<Category> categories = categoryRepository.findAll();
+		List<Question> batch = new ArrayList<>();
+		for (long i = questionRepository.count(); i < QUESTIONS; i++) {
+			Question question = new Question();
+			question.setCategory(categories.get((int) (i % categories.size())));
+			question.setQuestionAr("سؤال تجريبي رقم " + i);
+			question.setQuestionEn("Synthetic question " + i);
+			question.setOptionAAr("أ");
+			question.setOptionBAr("ب");
+			question.setOptionCAr("ج");
+			question.setOptionDAr("د");
+			question.setCorrectAnswer((int) (i % 4));
+			question.setExplanationAr("شرح تجريبي");
+			batch.add(question);
+			if (batch.size() == 500) {
+				questionRepository.saveAll(batch);
+				batch.clear();
+			}
+		}
+		questionRepository.saveAll(batch);
+	}
+
+	private HttpRequest get(String path, String token) {
+		return request(path, token).GET().build();
+	}
+
+	private HttpRequest post(String path, String token, Object body) {
+		return request(path, token)
+			.header("Content-Type", "application/json")
+			.POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+			.build();
+	}
+
+	private HttpRequest.Builder request(String path, String token) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+			.timeout(Duration.ofSeconds(60));
+		if (token != null) {
+			builder.header("Authorization", "Bearer " + token);
+		}
+		return builder;
+	}
+
+	private <T> List<T> runConcurrently(int count, Task<T> task) throws Exception {
+		return runConcurrently(count, task, () -> {});
+	}
+
+	// Runs count copies of the task, calls release once all are submitted, and returns the successful results
+	private <T> List<T> runConcurrently(int count, Task<T> task, Runnable release) throws Exception {
+		ExecutorService executor = newExecutor();
+		try {
+			List<Future<T>> futures = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				int index = i;
+				futures.add(executor.submit(() -> task.run(index)));
+			}
+			release.run();
+			List<T> results = new ArrayList<>(count);
+			for (Future<T> future : futures) {
+				try {
+					results.add(future.get());
+				} catch (ExecutionException e) {
+					// Already counted by the recorder
+				}
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// Virtual threads when the runtime has them (Java 21+), otherwise a bounded platform pool
+	private static ExecutorService newExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newFixedThreadPool(THREADS);
+		}
+	}
+
+	private static String executorDescription() {
+		try {
+			Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return "virtual threads";
+		} catch (NoSuchMethodException e) {
+			return THREADS + " platform threads";
+		}
+	}
+
+	@FunctionalInterface
+	private interface Task<T> {
+		T run(int index) throws Exception;
+	}
+
+	// Per-endpoint latencies and errors for one phase of the run
+	private class Recorder {
+		private final String phase;
+		private final long startedAt = System.nanoTime();
+		private final Map<String, Queue<Long>> latencies = new ConcurrentHashMap<>();
+		private final Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+
+		Recorder(String phase) {
+			this.phase = phase;
+		}
+
+		JsonNode call(String endpoint, HttpRequest request) throws Exception {
+			long start = System.nanoTime();
+			HttpResponse<String> response;
+			try {
+				response = http.send(request, HttpResponse.BodyHandlers.ofString());
+			} catch (Exception e) {
+				failures.computeIfAbsent(endpoint, k -> new AtomicLong()).incrementAndGet();
+				throw e;
+			}
+			latencies.computeIfAbsent(endpoint, k -> new ConcurrentLinkedQueue<>()).add(System.nanoTime() - start);
+			if (response.statusCode() >= 400) {
+				failures.computeIfAbsent(endpoint, k -> new AtomicLong()).incrementAndGet();
+				throw new IllegalStateException(endpoint + " returned " + response.statusCode() + ": " + response.body());
+			}
+			return response.body().isEmpty() ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+		}
+
+		long errors() {
+			return failures.values().stream().mapToLong(AtomicLong::get).sum();
+		}
+
+		void report() {
+			double seconds = (System.nanoTime() - startedAt) / 1e9;
+			System.out.printf("%n== %s (%.1f s)%n%-36s %8s %7s %9s %9s %9s %9s%n", phase, seconds,
+				"endpoint", "requests", "errors", "p50 ms", "p99 ms", "max ms", "req/s");
+			new TreeMap<>(latencies).forEach((endpoint, samples) -> {
+				long[] sorted = samples.stream().mapToLong(Long::longValue).sorted().toArray();
+				AtomicLong failed = failures.get(endpoint);
+				System.out.printf("%-36s %8d %7d %9.1f %9.1f %9.1f %9.0f%n", endpoint, sorted.length,
+					failed != null ? failed.get() : 0,
+					percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6,
+					sorted.length / seconds);
+			});
+		}
+
+		private double percentile(long[] sorted, double p) {
+			int index = (int) Math.ceil(p * sorted.length) - 1;
+			return sorted[Math.max(0, index)] / 1e6;
+		}
+	}
+}
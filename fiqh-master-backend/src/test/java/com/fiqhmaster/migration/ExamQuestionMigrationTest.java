@@ -0,0 +1,63 @@
+package com.fiqhmaster.migration;
+
+import com.fiqhmaster.entity.ScheduledExam;
+import com.fiqhmaster.entity.User;
+import com.fiqhmaster.repository.ScheduledExamRepository;
+import com.fiqhmaster.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ExamQuestionMigrationTest {
+
+	@Autowired
+	private ExamQuestionMigration migration;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ScheduledExamRepository scheduledExamRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void commaSeparatedColumnsMoveIntoTheJoinTables() {
+		User creator = userRepository.findAll().get(0);
+		ScheduledExam exam = new ScheduledExam();
+		exam.setCreator(creator);
+		exam.setTitle("Legacy");
+		exam.setStartTime(LocalDateTime.now().plusDays(1));
+		exam.setDurationMinutes(30);
+		exam.setTotalQuestions(4);
+		Long examId = scheduledExamRepository.save(exam).getId();
+
+		jdbcTemplate.execute("ALTER TABLE scheduled_exams ADD COLUMN question_ids TEXT");
+		jdbcTemplate.execute("ALTER TABLE scheduled_exams ADD COLUMN category_ids TEXT");
+		try {
+			jdbcTemplate.update("UPDATE scheduled_exams SET question_ids = ?, category_ids = ? WHERE id = ?", "7,3,9,3", "2,1,2", examId);
+
+			migration.migrate();
+			migration.migrate();
+
+			assertThat(scheduledExamRepository.findQuestionIdsByExamId(examId)).containsExactly(7L, 3L, 9L, 3L);
+			assertThat(jdbcTemplate.queryForList("SELECT category_id FROM exam_categories WHERE exam_id = ?", Long.class, examId))
+				.containsExactlyInAnyOrder(2L, 1L);
+			assertThat(jdbcTemplate.queryForList("SELECT question_ids FROM scheduled_exams WHERE id = ?", String.class, examId))
+				.containsOnlyNulls();
+		} finally {
+			jdbcTemplate.execute("ALTER TABLE scheduled_exams DROP COLUMN question_ids");
+			jdbcTemplate.execute("ALTER TABLE scheduled_exams DROP COLUMN category_ids");
+		}
+	}
+}
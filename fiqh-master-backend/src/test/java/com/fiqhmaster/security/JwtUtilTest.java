@@ -0,0 +1,71 @@
+package com.fiqhmaster.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+
+	private static final String SECRET = "TestSecretKeyForJwtUtilTestsThatIsLongEnoughForHmacSha256";
+
+	private JwtUtil jwtUtil;
+
+	@BeforeEach
+	void setUp() {
+		jwtUtil = newJwtUtil(SECRET, 60_000L);
+	}
+
+	@Test
+	void authenticateReturnsClaimsAndServesRepeatsFromCache() {
+		String token = jwtUtil.generateToken("user@example.com", 42L);
+
+		Optional<JwtUtil.VerifiedToken> first = jwtUtil.authenticate(token);
+		Optional<JwtUtil.VerifiedToken> second = jwtUtil.authenticate(token);
+
+		assertThat(first).isPresent();
+		assertThat(first.get().userId()).isEqualTo(42L);
+		assertThat(first.get().email()).isEqualTo("user@example.com");
+		assertThat(second).containsSame(first.get());
+	}
+
+	@Test
+	void rejectsTamperedAndForeignTokens() {
+		String token = jwtUtil.generateToken("user@example.com", 42L);
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+		String foreign = newJwtUtil(SECRET + "-other", 60_000L).generateToken("user@example.com", 42L);
+
+		assertThat(jwtUtil.authenticate(tampered)).isEmpty();
+		assertThat(jwtUtil.authenticate(foreign)).isEmpty();
+		assertThat(jwtUtil.authenticate("not-a-jwt")).isEmpty();
+	}
+
+	@Test
+	void cachedTokenStopsWorkingOnceExpired() throws InterruptedException {
+		String token = Jwts.builder()
+			.subject("user@example.com")
+			.claim("userId", 42L)
+			.expiration(new Date(System.currentTimeMillis() + 1_500))
+			.signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+			.compact();
+
+		assertThat(jwtUtil.authenticate(token)).isPresent();
+		Thread.sleep(1_600);
+		assertThat(jwtUtil.authenticate(token)).isEmpty();
+	}
+
+	private static JwtUtil newJwtUtil(String secret, long expiration) {
+		JwtUtil util = new JwtUtil();
+		ReflectionTestUtils.setField(util, "secret", secret);
+		ReflectionTestUtils.setField(util, "expiration", expiration);
+		ReflectionTestUtils.setField(util, "cacheSize", 100);
+		util.init();
+		return util;
+	}
+}
@@ -0,0 +1,78 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.dto.QuizStartRequest;
+import com.fiqhmaster.dto.RegisterRequest;
+import com.fiqhmaster.repository.CategoryRepository;
+import com.fiqhmaster.repository.UserCategoryStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CategoryStatsTest {
+
+	private static final int QUIZZES = 4;
+
+	@Autowired
+	private QuizService quizService;
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private UserCategoryStatsRepository userCategoryStatsRepository;
+
+	@Test
+	void firstQuizzesInACategoryMayCompleteTogether() throws Exception {
+		RegisterRequest register = new RegisterRequest();
+		register.setEmail("stats-" + System.nanoTime() + "@example.com");
+		register.setPassword("password");
+		register.setFullName("Stats User");
+		Long userId = authService.register(register).getUser().getId();
+		Long categoryId = categoryRepository.findAll().get(0).getId();
+
+		List<Long> attempts = new ArrayList<>();
+		for (int i = 0; i < QUIZZES; i++) {
+			QuizStartRequest start = new QuizStartRequest();
+			start.setCategoryId(categoryId);
+			start.setQuizType("category");
+			start.setQuestionCount(2);
+			attempts.add(quizService.startQuiz(userId, start).getId());
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(QUIZZES);
+		try {
+			CountDownLatch go = new CountDownLatch(1);
+			List<Future<?>> completions = new ArrayList<>();
+			for (Long attemptId : attempts) {
+				completions.add(executor.submit(() -> {
+					go.await();
+					return quizService.completeQuiz(userId, attemptId, 60);
+				}));
+			}
+			go.countDown();
+			for (Future<?> completion : completions) {
+				completion.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThat(userCategoryStatsRepository.findTotals(userId, categoryId))
+			.hasValueSatisfying(totals -> assertThat(totals.getQuizzesTaken()).isEqualTo(QUIZZES));
+	}
+}
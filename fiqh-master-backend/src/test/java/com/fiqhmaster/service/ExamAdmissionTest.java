@@ -0,0 +1,122 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.dto.ScheduledExamDTO;
+import com.fiqhmaster.repository.ExamParticipantRepository;
+import com.fiqhmaster.repository.QuestionRepository;
+import com.fiqhmaster.repository.ScheduledExamRepository;
+import com.fiqhmaster.support.ExamFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(ExamFixtures.class)
+class ExamAdmissionTest {
+
+	@Autowired
+	private ScheduledExamService scheduledExamService;
+
+	@Autowired
+	private ExamFixtures fixtures;
+
+	@Autowired
+	private QuestionRepository questionRepository;
+
+	@Autowired
+	private ScheduledExamRepository scheduledExamRepository;
+
+	@Autowired
+	private ExamParticipantRepository examParticipantRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void concurrentJoinsNeverOverfillAnExam() throws Exception {
+		int capacity = 15;
+		ScheduledExamDTO exam = createExam(capacity);
+		List<Long> users = fixtures.users("storm", 40);
+
+		List<String> outcomes = joinAtOnce(exam.getExamCode(), users);
+
+		assertThat(outcomes).filteredOn("joined"::equals).hasSize(capacity);
+		assertThat(outcomes).filteredOn(outcome -> !outcome.equals("joined")).containsOnly("الاختبار ممتلئ");
+		assertThat(scheduledExamRepository.findById(exam.getId()).orElseThrow().getCurrentParticipants()).isEqualTo(capacity);
+		assertThat(examParticipantRepository.countByExamId(exam.getId())).isEqualTo(capacity);
+	}
+
+	@Test
+	void theSameUserIsSeatedOnce() throws Exception {
+		ScheduledExamDTO exam = createExam(10);
+		Long userId = fixtures.users("repeat", 1).get(0);
+
+		List<String> outcomes = joinAtOnce(exam.getExamCode(), List.of(userId, userId, userId, userId, userId));
+
+		assertThat(outcomes).filteredOn("joined"::equals).hasSize(1);
+		assertThat(scheduledExamRepository.findById(exam.getId()).orElseThrow().getCurrentParticipants()).isEqualTo(1);
+		assertThat(examParticipantRepository.countByExamId(exam.getId())).isEqualTo(1);
+	}
+
+	@Test
+	void aSeatRefusedByTheDatabaseIsReleased() {
+		ScheduledExamDTO exam = createExam(2);
+		List<Long> users = fixtures.users("release", 3);
+		scheduledExamService.joinExam(users.get(0), exam.getExamCode());
+
+		// Another instance takes the last seat: memory still sees one free, the conditional update refuses it
+		jdbcTemplate.update("UPDATE scheduled_exams SET current_participants = 2 WHERE id = ?", exam.getId());
+		assertThatThrownBy(() -> scheduledExamService.joinExam(users.get(1), exam.getExamCode()))
+			.hasMessage("الاختبار ممتلئ");
+		assertThat(examParticipantRepository.countByExamId(exam.getId())).isEqualTo(1);
+
+		// That seat frees up again; the rolled-back join must not still be holding it in memory
+		jdbcTemplate.update("UPDATE scheduled_exams SET current_participants = 1 WHERE id = ?", exam.getId());
+		scheduledExamService.joinExam(users.get(2), exam.getExamCode());
+		assertThat(examParticipantRepository.countByExamId(exam.getId())).isEqualTo(2);
+	}
+
+	private List<String> joinAtOnce(String examCode, List<Long> userIds) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<String>> futures = new ArrayList<>();
+			for (Long userId : userIds) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					try {
+						scheduledExamService.joinExam(userId, examCode);
+						return "joined";
+					} catch (IllegalArgumentException e) {
+						return e.getMessage();
+					}
+				}));
+			}
+			start.countDown();
+			List<String> outcomes = new ArrayList<>();
+			for (Future<String> future : futures) {
+				outcomes.add(future.get());
+			}
+			return outcomes;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private ScheduledExamDTO createExam(int capacity) {
+		return fixtures.exam("Admission", capacity, List.of(questionRepository.findAll().get(0).getId()));
+	}
+}
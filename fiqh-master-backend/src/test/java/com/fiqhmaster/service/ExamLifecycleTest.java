@@ -0,0 +1,83 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.dto.ScheduledExamDTO;
+import com.fiqhmaster.metrics.QueryCountHeaderAdvice;
+import com.fiqhmaster.repository.QuestionRepository;
+import com.fiqhmaster.repository.ScheduledExamRepository;
+import com.fiqhmaster.support.ExamFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static com.fiqhmaster.support.QueryBudget.exactly;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Own context: the wheel is driven with a clock running ahead of the real one
+@SpringBootTest(properties = "fiqh.exams.lifecycle.retention-ms=60000")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ExamFixtures.class)
+class ExamLifecycleTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ExamFixtures fixtures;
+
+	@Autowired
+	private QuestionRepository questionRepository;
+
+	@Autowired
+	private ScheduledExamRepository scheduledExamRepository;
+
+	@Autowired
+	private ExamLifecycle examLifecycle;
+
+	@Test
+	void upcomingExamIsWarmedBeforeItStartsAndDroppedAfterItEnds() throws Exception {
+		String authorization = fixtures.authorization(fixtures.creator());
+		LocalDateTime startTime = LocalDateTime.now().plusMinutes(10);
+		ScheduledExamDTO exam = fixtures.exam("Lifecycle", startTime, null, List.of(questionRepository.findAll().get(0).getId()));
+		String examCode = exam.getExamCode();
+		Long examId = exam.getId();
+
+		examLifecycle.refresh(LocalDateTime.now());
+		examLifecycle.advance(millis(startTime.minusMinutes(4)));
+
+		// Seats were loaded by the warm-up
+		mockMvc.perform(post("/api/scheduled-exams/join").header("Authorization", authorization)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"examCode\":\"" + examCode + "\"}"))
+			.andExpect(status().isOk());
+		// The paper is already built: only the registration check
+		mockMvc.perform(get("/api/scheduled-exams/" + examId + "/questions").header("Authorization", authorization))
+			.andExpect(status().isOk())
+			.andExpect(exactly(1));
+
+		LocalDateTime endTime = startTime.plusMinutes(30);
+		examLifecycle.advance(millis(endTime.plusSeconds(ScheduledExamService.SUBMIT_GRACE_SECONDS + 1)));
+		assertThat(scheduledExamRepository.findById(examId).orElseThrow().getFinalizedAt()).isNotNull();
+
+		examLifecycle.advance(millis(endTime.plusMinutes(2)));
+		String statements = mockMvc.perform(get("/api/scheduled-exams/" + examId + "/questions").header("Authorization", authorization))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader(QueryCountHeaderAdvice.QUERY_COUNT);
+		assertThat(Integer.parseInt(statements)).isGreaterThan(1);
+	}
+
+	private static long millis(LocalDateTime time) {
+		return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+}
@@ -0,0 +1,217 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.dto.BatchAnswerRequest;
+import com.fiqhmaster.dto.ExamResultsDTO;
+import com.fiqhmaster.dto.ExamSubmissionResultDTO;
+import com.fiqhmaster.dto.ScheduledExamDTO;
+import com.fiqhmaster.entity.Question;
+import com.fiqhmaster.repository.ExamParticipantRepository;
+import com.fiqhmaster.repository.QuestionRepository;
+import com.fiqhmaster.support.ExamFixtures;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(ExamFixtures.class)
+class ExamSubmissionTest {
+
+	@Autowired
+	private ScheduledExamService scheduledExamService;
+
+	@Autowired
+	private ExamFixtures fixtures;
+
+	@Autowired
+	private QuestionRepository questionRepository;
+
+	@Autowired
+	private ExamParticipantRepository examParticipantRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private List<Question> questions;
+
+	@BeforeEach
+	void setUp() {
+		questions = questionRepository.findAll().subList(0, 3);
+	}
+
+	@Test
+	void batchesAreScoredAgainstThePaperAndRanked() {
+		List<Long> users = fixtures.users("ranked", 2);
+		Long examId = startedExam(users);
+		Long slower = users.get(0);
+		Long faster = users.get(1);
+
+		ExamSubmissionResultDTO first = scheduledExamService.submitAnswers(slower, examId, request(false, answer(0, true)));
+		assertThat(first.getCorrect()).isEqualTo(1);
+		assertThat(first.getCompleted()).isFalse();
+		assertThatThrownBy(() -> scheduledExamService.submitAnswers(slower, examId, request(false, answer(0, false))))
+			.hasMessage("تمت الإجابة على هذا السؤال مسبقاً");
+
+		ExamSubmissionResultDTO last = scheduledExamService.submitAnswers(slower, examId,
+			request(true, answer(1, false), answer(2, true)));
+		assertThat(last.getCompleted()).isTrue();
+		assertThat(last.getScore()).isEqualTo(2);
+		assertThatThrownBy(() -> scheduledExamService.submitAnswers(slower, examId, request(true, answer(1, true))))
+			.hasMessage("لقد سلمت هذا الاختبار بالفعل");
+
+		scheduledExamService.submitAnswers(faster, examId, request(true, answer(0, true), answer(1, true), answer(2, true)));
+
+		ExamResultsDTO results = scheduledExamService.getExamResults(examId, slower, 10);
+		assertThat(results.getSubmitted()).isEqualTo(2);
+		assertThat(results.getRanking()).extracting("userId").containsExactly(faster, slower);
+		assertThat(results.getRanking()).extracting("score").containsExactly(3, 2);
+		assertThat(results.getMyResult().getRank()).isEqualTo(2);
+	}
+
+	@Test
+	void everyAnswerSentInBatchesCanThenBeHandedIn() {
+		List<Long> users = fixtures.users("handin", 1);
+		Long examId = startedExam(users);
+		Long userId = users.get(0);
+
+		scheduledExamService.submitAnswers(userId, examId, request(false, answer(0, true), answer(1, true)));
+		scheduledExamService.submitAnswers(userId, examId, request(false, answer(2, false)));
+		LocalDateTime before = LocalDateTime.now();
+
+		ExamSubmissionResultDTO result = scheduledExamService.completeExam(userId, examId);
+		assertThat(result.getCompleted()).isTrue();
+		assertThat(result.getSubmitted()).isZero();
+		assertThat(result.getScore()).isEqualTo(2);
+		assertThat(examParticipantRepository.findByExamIdAndUserId(examId, userId).orElseThrow().getCompletedAt())
+			.isAfterOrEqualTo(before.withNano(0));
+		assertThatThrownBy(() -> scheduledExamService.completeExam(userId, examId))
+			.hasMessage("لقد سلمت هذا الاختبار بالفعل");
+
+		ExamResultsDTO results = scheduledExamService.getExamResults(examId, userId, 10);
+		assertThat(results.getRanking()).extracting("score").containsExactly(2);
+	}
+
+	@Test
+	void aWholeClassCanSubmitAtOnce() throws Exception {
+		List<Long> users = fixtures.users("class", 30);
+		Long examId = startedExam(users);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<ExamSubmissionResultDTO>> futures = new ArrayList<>();
+			for (int i = 0; i < users.size(); i++) {
+				Long userId = users.get(i);
+				boolean lastCorrect = i % 2 == 0;
+				futures.add(executor.submit(() -> {
+					start.await();
+					return scheduledExamService.submitAnswers(userId, examId,
+						request(true, answer(0, true), answer(1, true), answer(2, lastCorrect)));
+				}));
+			}
+			start.countDown();
+			for (Future<ExamSubmissionResultDTO> future : futures) {
+				assertThat(future.get().getCompleted()).isTrue();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		ExamResultsDTO results = scheduledExamService.getExamResults(examId, users.get(0), 100);
+		assertThat(results.getSubmitted()).isEqualTo(30);
+		assertThat(results.getRanking()).extracting("score").filteredOn(score -> score.equals(3)).hasSize(15);
+		assertThat(results.getRanking()).extracting("rank").containsExactlyElementsOf(
+			IntStream.rangeClosed(1, 30).boxed().toList());
+		Integer scoreSum = jdbcTemplate.queryForObject("SELECT SUM(score) FROM exam_participants WHERE exam_id = ?",
+			Integer.class, examId);
+		assertThat(scoreSum).isEqualTo(15 * 3 + 15 * 2);
+	}
+
+	@Test
+	void resultsTagsDoNotLoadBoards() {
+		List<Long> users = fixtures.users("tag", 1);
+		double boards = meterRegistry.get("fiqh.exam.scoreboards").gauge().value();
+
+		scheduledExamService.examResultsEtag(Long.MAX_VALUE, users.get(0));
+		assertThat(meterRegistry.get("fiqh.exam.scoreboards").gauge().value()).isEqualTo(boards);
+		assertThatThrownBy(() -> scheduledExamService.getExamResults(Long.MAX_VALUE, users.get(0), 10))
+			.hasMessage("الاختبار غير موجود");
+		assertThat(meterRegistry.get("fiqh.exam.scoreboards").gauge().value()).isEqualTo(boards);
+	}
+
+	@Test
+	void anEndedExamIsFinalized() {
+		List<Long> users = fixtures.users("final", 2);
+		Long examId = startedExam(users.subList(0, 1), users);
+		scheduledExamService.submitAnswers(users.get(0), examId, request(false, answer(0, true)));
+
+		jdbcTemplate.update("UPDATE scheduled_exams SET start_time = ? WHERE id = ?", LocalDateTime.now().minusMinutes(40), examId);
+		assertThat(scheduledExamService.findExamsToFinalize()).contains(examId);
+		scheduledExamService.finalizeExam(examId);
+		scheduledExamService.finalizeExam(examId);
+
+		assertThat(examParticipantRepository.findByExamIdAndUserId(examId, users.get(0)).orElseThrow().getStatus())
+			.isEqualTo("COMPLETED");
+		assertThat(examParticipantRepository.findByExamIdAndUserId(examId, users.get(1)).orElseThrow().getStatus())
+			.isEqualTo("ABSENT");
+		assertThat(scheduledExamService.findExamsToFinalize()).doesNotContain(examId);
+
+		ExamResultsDTO results = scheduledExamService.getExamResults(examId, users.get(1), 10);
+		assertThat(results.getFinalized()).isTrue();
+		assertThat(results.getRanking()).extracting("userId").containsExactly(users.get(0));
+		assertThat(results.getRanking()).extracting("score").containsExactly(1);
+		assertThat(results.getMyResult()).isNull();
+	}
+
+	private Long startedExam(List<Long> users) {
+		return startedExam(users, users);
+	}
+
+	// Everyone joins before the start; the exam then begins and the given users open it
+	private Long startedExam(List<Long> starting, List<Long> joining) {
+		ScheduledExamDTO exam = fixtures.exam("Submission", null, questions.stream().map(Question::getId).toList());
+		for (Long userId : joining) {
+			scheduledExamService.joinExam(userId, exam.getExamCode());
+		}
+		fixtures.begin(exam.getId());
+		for (Long userId : starting) {
+			scheduledExamService.startExam(userId, exam.getId());
+		}
+		return exam.getId();
+	}
+
+	private BatchAnswerRequest request(boolean complete, BatchAnswerRequest.Answer... answers) {
+		BatchAnswerRequest request = new BatchAnswerRequest();
+		request.setAnswers(List.of(answers));
+		request.setComplete(complete);
+		return request;
+	}
+
+	private BatchAnswerRequest.Answer answer(int index, boolean correct) {
+		Question question = questions.get(index);
+		BatchAnswerRequest.Answer answer = new BatchAnswerRequest.Answer();
+		answer.setQuestionId(question.getId());
+		answer.setSelectedAnswer(correct ? question.getCorrectAnswer() : (question.getCorrectAnswer() + 1) % 4);
+		return answer;
+	}
+}
@@ -0,0 +1,148 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.entity.Category;
+import com.fiqhmaster.entity.Marja;
+import com.fiqhmaster.entity.Question;
+import com.fiqhmaster.repository.QuestionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuestionIndexTest {
+
+	private static final List<Long> CATEGORIES = List.of(1L, 2L, 3L);
+	private static final List<String> DIFFICULTIES = List.of("easy", "medium", "hard");
+	private static final List<Long> MARJAS = Arrays.asList(10L, 20L, null);
+
+	private QuestionRepository questionRepository;
+	private QuestionIndex index;
+	private List<Object[]> rows;
+
+	// Two questions for every category, difficulty and marja (or none)
+	@BeforeEach
+	void setUp() {
+		rows = new ArrayList<>();
+		long id = 100;
+		for (Long category : CATEGORIES) {
+			for (String difficulty : DIFFICULTIES) {
+				for (Long marja : MARJAS) {
+					for (int copy = 0; copy < 2; copy++) {
+						rows.add(new Object[]{id++, category, difficulty, marja});
+					}
+				}
+			}
+		}
+		questionRepository = mock(QuestionRepository.class);
+		when(questionRepository.findIndexKeys()).thenReturn(rows);
+		index = new QuestionIndex(questionRepository);
+	}
+
+	@Test
+	void loadsOnceOnFirstRead() {
+		verify(questionRepository, never()).findIndexKeys();
+		index.count(null, null, null);
+		index.sample(1L, null, null, 5);
+		index.countsByDifficulty(2L);
+		verify(questionRepository, times(1)).findIndexKeys();
+	}
+
+	@Test
+	void samplesHoldNoDuplicatesAndAreCappedAtThePool() {
+		Set<Long> pool = expected(1L, null, null);
+		for (int limit : new int[]{0, 1, 5, pool.size() - 1, pool.size(), pool.size() + 10}) {
+			for (int round = 0; round < 50; round++) {
+				long[] sample = index.sample(1L, null, null, limit);
+				assertThat(sample).hasSize(Math.min(limit, pool.size()));
+				assertThat(Arrays.stream(sample).distinct().count()).isEqualTo(sample.length);
+				assertThat(Arrays.stream(sample).boxed().toList()).allMatch(pool::contains);
+			}
+		}
+		assertThat(index.sample(99L, null, null, 5)).isEmpty();
+	}
+
+	@Test
+	void everyCombinationOfFiltersHasItsOwnPool() {
+		List<Long> categories = Arrays.asList(1L, 2L, 3L, null);
+		List<String> difficulties = Arrays.asList("easy", "medium", "hard", null);
+		for (Long category : categories) {
+			for (String difficulty : difficulties) {
+				for (Long marja : MARJAS) {
+					Set<Long> pool = expected(category, difficulty, marja);
+					assertThat(index.count(category, difficulty, marja)).isEqualTo(pool.size());
+					assertThat(Arrays.stream(index.sample(category, difficulty, marja, Integer.MAX_VALUE)).boxed()
+						.collect(Collectors.toSet()))
+						.as("pool %s/%s/%s", category, difficulty, marja)
+						.isEqualTo(pool);
+				}
+			}
+		}
+		assertThat(index.countsByDifficulty(1L)).containsExactly(
+			Map.entry("easy", 6), Map.entry("hard", 6), Map.entry("medium", 6));
+		assertThat(index.countsByMarja(null)).containsExactly(Map.entry(10L, 18), Map.entry(20L, 18));
+	}
+
+	@Test
+	void savesAndRemovalsShowOnTheNextRead() {
+		long version = index.version();
+		int all = index.count(null, null, null);
+
+		index.questionSaved(question(1L, 2L, "hard", 20L));
+		index.questionRemoved(100L);
+		// Moves from category 1 to category 3
+		index.questionSaved(question(101L, 3L, "easy", null));
+
+		assertThat(index.version()).isGreaterThan(version);
+		assertThat(index.count(null, null, null)).isEqualTo(all);
+		Set<Long> hard = ids(index.sample(2L, "hard", 20L, Integer.MAX_VALUE));
+		assertThat(hard).contains(1L).hasSize(3);
+		Set<Long> category1 = ids(index.sample(1L, null, null, Integer.MAX_VALUE));
+		assertThat(category1).doesNotContain(100L, 101L).hasSize(16);
+		assertThat(ids(index.sample(3L, "easy", null, Integer.MAX_VALUE))).contains(101L);
+		assertThat(index.count(3L, null, null)).isEqualTo(19);
+
+		index.questionRemoved(1L);
+		assertThat(index.count(2L, "hard", 20L)).isEqualTo(2);
+		assertThat(index.count(null, null, null)).isEqualTo(all - 1);
+	}
+
+	private Set<Long> expected(Long category, String difficulty, Long marja) {
+		return rows.stream()
+			.filter(row -> category == null || category.equals(row[1]))
+			.filter(row -> difficulty == null || difficulty.equals(row[2]))
+			.filter(row -> marja == null || marja.equals(row[3]))
+			.map(row -> (Long) row[0])
+			.collect(Collectors.toSet());
+	}
+
+	private static Set<Long> ids(long[] sample) {
+		return Arrays.stream(sample).boxed().collect(Collectors.toSet());
+	}
+
+	private static Question question(Long id, Long categoryId, String difficulty, Long marjaId) {
+		Question question = new Question();
+		question.setId(id);
+		Category category = new Category();
+		category.setId(categoryId);
+		question.setCategory(category);
+		question.setDifficulty(difficulty);
+		if (marjaId != null) {
+			Marja marja = new Marja();
+			marja.setId(marjaId);
+			question.setMarja(marja);
+		}
+		return question;
+	}
+}
@@ -0,0 +1,92 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.dto.BatchAnswerRequest;
+import com.fiqhmaster.dto.BatchAnswerResultDTO;
+import com.fiqhmaster.dto.QuizStartRequest;
+import com.fiqhmaster.entity.Question;
+import com.fiqhmaster.entity.User;
+import com.fiqhmaster.entity.UserAnswer;
+import com.fiqhmaster.repository.QuestionRepository;
+import com.fiqhmaster.repository.UserAnswerRepository;
+import com.fiqhmaster.repository.UserRepository;
+import org.hibernate.SessionEventListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties =
+	"spring.jpa.properties.hibernate.session.events.auto=com.fiqhmaster.service.QuizAnswerBatchingTest$BatchCounter")
+@ActiveProfiles("test")
+class QuizAnswerBatchingTest {
+
+	private static final int ANSWERS = 120;
+
+	@Autowired
+	private QuizService quizService;
+
+	@Autowired
+	private QuestionContentCache questionContentCache;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private QuestionRepository questionRepository;
+
+	@Autowired
+	private UserAnswerRepository userAnswerRepository;
+
+	@Test
+	void batchSubmissionWritesAnswersInJdbcBatches() {
+		User user = userRepository.findAll().get(0);
+		List<Question> questions = questionRepository.findAll().subList(0, ANSWERS);
+
+		QuizStartRequest start = new QuizStartRequest();
+		start.setQuestionCount(ANSWERS);
+		Long attemptId = quizService.startQuiz(user.getId(), start).getId();
+
+		BatchAnswerRequest request = new BatchAnswerRequest();
+		List<BatchAnswerRequest.Answer> answers = new ArrayList<>();
+		for (int i = 0; i < ANSWERS; i++) {
+			BatchAnswerRequest.Answer answer = new BatchAnswerRequest.Answer();
+			answer.setQuestionId(questions.get(i).getId());
+			answer.setSelectedAnswer(i % 4);
+			answer.setTimeTakenSeconds(5);
+			answers.add(answer);
+		}
+		request.setAnswers(answers);
+		questionContentCache.getAll(questions.stream().map(Question::getId).toList());
+
+		BatchCounter.reset();
+		BatchAnswerResultDTO result = quizService.submitAnswers(user.getId(), attemptId, request);
+
+		// 120 rows at hibernate.jdbc.batch_size=50 go out as three batches
+		assertThat(BatchCounter.batches.get()).isEqualTo(3);
+		assertThat(result.getSubmitted()).isEqualTo(ANSWERS);
+
+		List<UserAnswer> saved = userAnswerRepository.findByQuizAttemptId(attemptId);
+		assertThat(saved).hasSize(ANSWERS);
+		assertThat(saved.stream().map(UserAnswer::getId).distinct().count()).isEqualTo(ANSWERS);
+	}
+
+	public static class BatchCounter implements SessionEventListener {
+
+		static final AtomicInteger batches = new AtomicInteger();
+
+		static void reset() {
+			batches.set(0);
+		}
+
+		@Override
+		public void jdbcExecuteBatchStart() {
+			batches.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package com.fiqhmaster.service;
+
+import com.fiqhmaster.dto.AnswerRequest;
+import com.fiqhmaster.dto.QuizStartRequest;
+import com.fiqhmaster.entity.Question;
+import com.fiqhmaster.entity.QuizAttempt;
+import com.fiqhmaster.entity.User;
+import com.fiqhmaster.entity.UserAnswer;
+import com.fiqhmaster.repository.QuestionRepository;
+import com.fiqhmaster.repository.QuizAttemptRepository;
+import com.fiqhmaster.repository.UserAnswerRepository;
+import com.fiqhmaster.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Compares the entity-loading answer path that QuizService used to run with the current one
+@SpringBootTest
+@ActiveProfiles("test")
+class QuizSubmissionBenchmarkTest {
+
+	private static final int ANSWERS = 300;
+
+	@Autowired
+	private QuizService quizService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private QuestionRepository questionRepository;
+
+	@Autowired
+	private QuizAttemptRepository quizAttemptRepository;
+
+	@Autowired
+	private UserAnswerRepository userAnswerRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void submitAnswerUsesAtMostTwoStatementsPerAnswer() {
+		User user = userRepository.findAll().get(0);
+		List<Question> questions = questionRepository.findAll();
+
+		Result legacy = run("legacy", user, questions, request -> legacySubmit(user.getId(), request));
+		Result current = run("current", user, questions, request -> quizService.submitAnswer(user.getId(), request));
+
+		assertThat(current.statementsPerAnswer()).isLessThanOrEqualTo(2.0);
+		assertThat(current.statementsPerAnswer()).isLessThan(legacy.statementsPerAnswer());
+	}
+
+	// Timing depends on the machine, so it only runs with -Pload
+	@Test
+	@Tag("load")
+	void submitAnswerThroughput() {
+		User user = userRepository.findAll().get(0);
+		List<Question> questions = questionRepository.findAll();
+
+		Result legacy = run("legacy", user, questions, request -> legacySubmit(user.getId(), request));
+		Result current = run("current", user, questions, request -> quizService.submitAnswer(user.getId(), request));
+
+		System.out.printf("submitAnswer benchmark (%d answers): legacy %.0f answers/s, %.2f statements/answer; "
+				+ "current %.0f answers/s, %.2f statements/answer%n",
+			ANSWERS, legacy.throughput(), legacy.statementsPerAnswer(),
+			current.throughput(), current.statementsPerAnswer());
+	}
+
+	private Result run(String name, User user, List<Question> questions, Consumer<AnswerRequest> submit) {
+		QuizStartRequest start = new QuizStartRequest();
+		start.setQuestionCount(ANSWERS);
+		Long attemptId = quizService.startQuiz(user.getId(), start).getId();
+
+		// Warm up caches and the connection pool outside the measured window
+		for (int i = 0; i < ANSWERS; i++) {
+			submit.accept(answer(attemptId, questions.get(i % questions.size()), i));
+		}
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		long begin = System.nanoTime();
+		for (int i = 0; i < ANSWERS; i++) {
+			submit.accept(answer(attemptId, questions.get(i % questions.size()), i));
+		}
+		long elapsed = System.nanoTime() - begin;
+		return new Result(name, elapsed, statistics.getPrepareStatementCount());
+	}
+
+	private AnswerRequest answer(Long attemptId, Question question, int i) {
+		AnswerRequest request = new AnswerRequest();
+		request.setQuizAttemptId(attemptId);
+		request.setQuestionId(question.getId());
+		request.setSelectedAnswer(i % 4);
+		request.setTimeTakenSeconds(5);
+		return request;
+	}
+
+	// The previous QuizService.submitAnswer + QuestionService.incrementStats, kept here as the baseline
+	private void legacySubmit(Long userId, AnswerRequest request) {
+		transactionTemplate.executeWithoutResult(status -> {
+			QuizAttempt attempt = quizAttemptRepository.findById(request.getQuizAttemptId()).orElseThrow();
+			assertThat(attempt.getUser().getId()).isEqualTo(userId);
+			Question question = questionRepository.findById(request.getQuestionId()).orElseThrow();
+			boolean isCorrect = question.getCorrectAnswer().equals(request.getSelectedAnswer());
+
+			UserAnswer answer = new UserAnswer();
+			answer.setQuizAttempt(attempt);
+			answer.setQuestion(question);
+			answer.setSelectedAnswer(request.getSelectedAnswer());
+			answer.setIsCorrect(isCorrect);
+			answer.setTimeTakenSeconds(request.getTimeTakenSeconds());
+			userAnswerRepository.save(answer);
+
+			if (isCorrect) {
+				attempt.setCorrectAnswers(attempt.getCorrectAnswers() + 1);
+				quizAttemptRepository.save(attempt);
+			}
+
+			Question counted = questionRepository.findById(question.getId()).orElseThrow();
+			counted.setTimesAnswered(counted.getTimesAnswered() + 1);
+			if (isCorrect) {
+				counted.setTimesCorrect(counted.getTimesCorrect() + 1);
+			}
+			questionRepository.save(counted);
+		});
+	}
+
+	private record Result(String name, long elapsedNanos, long statements) {
+
+		double throughput() {
+			return ANSWERS / (elapsedNanos / 1_000_000_000.0);
+		}
+
+		double statementsPerAnswer() {
+			return (double) statements / ANSWERS;
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.fiqhmaster.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankedSkipListTest {
+
+	@Test
+	void ranksMatchASortedSetUnderRandomInsertsAndRemoves() {
+		Comparator<Integer> descending = Comparator.reverseOrder();
+		RankedSkipList<Integer> list = new RankedSkipList<>(descending);
+		TreeSet<Integer> expected = new TreeSet<>(descending);
+		Random random = new Random(42);
+
+		for (int i = 0; i < 20_000; i++) {
+			int value = random.nextInt(2_000);
+			if (random.nextInt(3) == 0) {
+				assertThat(list.remove(value)).isEqualTo(expected.remove(value));
+			} else {
+				assertThat(list.add(value)).isEqualTo(expected.add(value));
+			}
+		}
+
+		List<Integer> sorted = new ArrayList<>(expected);
+		assertThat(list.size()).isEqualTo(sorted.size());
+		assertThat(list.range(0, sorted.size())).isEqualTo(sorted);
+		for (int i = 0; i < sorted.size(); i++) {
+			assertThat(list.indexOf(sorted.get(i))).isEqualTo(i);
+		}
+		assertThat(list.range(10, 5)).isEqualTo(sorted.subList(10, 15));
+		assertThat(list.range(sorted.size() - 2, 5)).isEqualTo(sorted.subList(sorted.size() - 2, sorted.size()));
+		assertThat(list.indexOf(-1)).isEqualTo(-1);
+	}
+}
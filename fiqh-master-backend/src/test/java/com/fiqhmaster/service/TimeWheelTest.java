@@ -0,0 +1,47 @@
+package com.fiqhmaster.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeWheelTest {
+
+	@Test
+	void tasksFireOnceInDueOrderAcrossRevolutions() {
+		TimeWheel<Long> wheel = new TimeWheel<>(1000, 16, 0);
+		Random random = new Random(7);
+		List<Long> deadlines = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			long due = random.nextInt(100_000);
+			deadlines.add(due);
+			wheel.schedule(due, due);
+		}
+
+		List<Long> fired = new ArrayList<>();
+		for (long now = 0; now <= 50_000; now += 700) {
+			List<Long> due = wheel.advance(now);
+			long current = now;
+			assertThat(due).allMatch(deadline -> deadline <= current).isSorted();
+			fired.addAll(due);
+		}
+		// A long pause skips whole revolutions without losing anything
+		fired.addAll(wheel.advance(100_000));
+
+		assertThat(wheel.size()).isZero();
+		assertThat(fired).containsExactlyInAnyOrderElementsOf(deadlines);
+		assertThat(wheel.advance(200_000)).isEmpty();
+	}
+
+	@Test
+	void overdueTasksFireOnTheNextTick() {
+		TimeWheel<String> wheel = new TimeWheel<>(1000, 8, 10_000);
+		wheel.schedule("late", 2_000);
+
+		assertThat(wheel.advance(10_500)).isEmpty();
+		assertThat(wheel.advance(11_000)).containsExactly("late");
+	}
+}
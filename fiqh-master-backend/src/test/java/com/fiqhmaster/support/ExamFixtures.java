@@ -0,0 +1,83 @@
+package com.fiqhmaster.support;
+
+import com.fiqhmaster.dto.CreateScheduledExamRequest;
+import com.fiqhmaster.dto.ScheduledExamDTO;
+import com.fiqhmaster.entity.User;
+import com.fiqhmaster.repository.UserRepository;
+import com.fiqhmaster.security.JwtUtil;
+import com.fiqhmaster.service.ScheduledExamService;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Users and exams for the exam tests; add with {@code @Import(ExamFixtures.class)}. Users are
+ * saved straight through the repository, skipping registration and its password hashing,
+ * so they can sign in only with a token from {@link #authorization(User)}.
+ */
+@TestComponent
+public class ExamFixtures {
+	private static final AtomicLong SEQUENCE = new AtomicLong();
+
+	private final UserRepository userRepository;
+	private final ScheduledExamService scheduledExamService;
+	private final JwtUtil jwtUtil;
+	private final JdbcTemplate jdbcTemplate;
+
+	public ExamFixtures(UserRepository userRepository, ScheduledExamService scheduledExamService,
+			JwtUtil jwtUtil, JdbcTemplate jdbcTemplate) {
+		this.userRepository = userRepository;
+		this.scheduledExamService = scheduledExamService;
+		this.jwtUtil = jwtUtil;
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	public User user(String fullName) {
+		User user = new User();
+		user.setEmail("exam-" + SEQUENCE.incrementAndGet() + "-" + System.nanoTime() + "@example.com");
+		user.setPassword("unused");
+		user.setFullName(fullName);
+		return userRepository.save(user);
+	}
+
+	public List<Long> users(String prefix, int count) {
+		List<Long> ids = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			ids.add(user(prefix + " " + i).getId());
+		}
+		return ids;
+	}
+
+	public String authorization(User user) {
+		return "Bearer " + jwtUtil.generateToken(user.getEmail(), user.getId());
+	}
+
+	// The seeded user who creates every test exam
+	public User creator() {
+		return userRepository.findAll().get(0);
+	}
+
+	// Starts in an hour and lasts 30 minutes
+	public ScheduledExamDTO exam(String title, Integer maxParticipants, List<Long> questionIds) {
+		return exam(title, LocalDateTime.now().plusHours(1), maxParticipants, questionIds);
+	}
+
+	public ScheduledExamDTO exam(String title, LocalDateTime startTime, Integer maxParticipants, List<Long> questionIds) {
+		CreateScheduledExamRequest request = new CreateScheduledExamRequest();
+		request.setTitle(title);
+		request.setStartTime(startTime);
+		request.setDurationMinutes(30);
+		request.setMaxParticipants(maxParticipants);
+		request.setQuestionIds(questionIds);
+		return scheduledExamService.createScheduledExam(creator().getId(), request);
+	}
+
+	// Joining closes at the start, so tests join first and then move the start into the past
+	public void begin(Long examId) {
+		jdbcTemplate.update("UPDATE scheduled_exams SET start_time = ? WHERE id = ?", LocalDateTime.now().minusMinutes(1), examId);
+	}
+}
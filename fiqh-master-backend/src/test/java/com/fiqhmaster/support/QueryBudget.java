@@ -0,0 +1,38 @@
+package com.fiqhmaster.support;
+
+import com.fiqhmaster.metrics.QueryCountHeaderAdvice;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MockMvc matchers asserting how many SQL statements a request may execute, read from the
+ * X-Query-Count header that non-production profiles attach to every API response.
+ */
+public final class QueryBudget {
+
+	private QueryBudget() {
+	}
+
+	public static ResultMatcher atMost(int statements) {
+		return result -> assertThat(statementCount(result.getResponse().getHeader(QueryCountHeaderAdvice.QUERY_COUNT),
+				result.getRequest()))
+			.as("SQL statements for %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+			.isLessThanOrEqualTo(statements);
+	}
+
+	public static ResultMatcher exactly(int statements) {
+		return result -> assertThat(statementCount(result.getResponse().getHeader(QueryCountHeaderAdvice.QUERY_COUNT),
+				result.getRequest()))
+			.as("SQL statements for %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+			.isEqualTo(statements);
+	}
+
+	private static int statementCount(String header, MockHttpServletRequest request) {
+		assertThat(header)
+			.as("%s header on %s %s", QueryCountHeaderAdvice.QUERY_COUNT, request.getMethod(), request.getRequestURI())
+			.isNotNull();
+		return Integer.parseInt(header);
+	}
+}
@@ -183,6 +183,14 @@ const api = {
     });
   },
   
+  async submitAnswers(token, quizAttemptId, data) {
+    return api.request(`/quiz/${quizAttemptId}/answers:batch`, {
+      method: 'POST',
+      token,
+      body: JSON.stringify(data)
+    });
+  },
+  
   async completeQuiz(token, quizAttemptId, timeTaken) {
     return api.request(`/quiz/complete/${quizAttemptId}?timeTaken=${timeTaken}`, {
       method: 'POST',
@@ -292,8 +300,16 @@ const api = {
     return api.request(`/leaderboard/streak?limit=${limit}`, { token });
   },
 
+  async getWindowLeaderboard(token, window = 'weekly', limit = 50) {
+    return api.request(`/leaderboard/${window}?limit=${limit}`, { token });
+  },
+
   async getUserRank(token) {
     return api.request('/leaderboard/me', { token });
+  },
+
+  async getLeaderboardAroundMe(token, radius = 5) {
+    return api.request(`/leaderboard/around-me?radius=${radius}`, { token });
   }
 };
 